@@ -2,6 +2,7 @@ plugins {
 	java
 	id("org.springframework.boot") version "3.3.5"
 	id("io.spring.dependency-management") version "1.1.6"
+	id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "ch.asipi-it"
@@ -20,6 +21,8 @@ repositories {
 dependencies {
 	// Main dependencies
 	implementation("org.springframework.boot:spring-boot-starter-web")
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 	implementation("com.prowidesoftware:pw-iso20022:SRU2024-10.2.3")
 
 	// XML Processing
@@ -49,6 +52,19 @@ tasks.withType<Test> {
 	}
 }
 
+// Benchmarks: ./gradlew jmh (results in build/results/jmh)
+jmh {
+	jmhVersion = "1.37"
+	benchmarkMode = listOf("thrpt", "sample")
+	profilers = listOf("gc")
+	warmupIterations = 3
+	iterations = 5
+	fork = 1
+	jvmArgs = listOf("-Xmx4g")
+	resultFormat = "JSON"
+	zip64 = true
+}
+
 tasks.withType<JavaCompile> {
 	options.encoding = "UTF-8"
 }
@@ -0,0 +1,117 @@
+package ch.asipiit.bankparser;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates reproducible CAMT documents and transaction lists for the benchmarks.
+ */
+public final class BenchmarkData {
+    private static final LocalDate FIRST_BOOKING_DATE = LocalDate.of(2022, 1, 1);
+    private static final int BOOKING_DAYS = 3 * 365;
+    private static final long SEED = 20_241_107L;
+
+    public enum DonorDistribution {
+        /** A handful of donors, each with a long history. */
+        FEW,
+        /** One donor per ten entries, all equally active. */
+        UNIFORM,
+        /** One donor per ten entries, activity following a power law. */
+        SKEWED
+    }
+
+    public enum CamtFormat {
+        CAMT_053("camt.053.001.08", "BkToCstmrStmt", "Stmt"),
+        CAMT_054("camt.054.001.08", "BkToCstmrDbtCdtNtfctn", "Ntfctn");
+
+        private final String version;
+        private final String message;
+        private final String container;
+
+        CamtFormat(String version, String message, String container) {
+            this.version = version;
+            this.message = message;
+            this.container = container;
+        }
+    }
+
+    private BenchmarkData() {
+    }
+
+    static Path writeCamtFile(CamtFormat format, int entries, DonorDistribution distribution) throws IOException {
+        Path file = Files.createTempFile("bench-" + format.version + "-" + entries + "-", ".xml");
+        SplittableRandom random = new SplittableRandom(SEED);
+        int donorCount = donorCount(entries, distribution);
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            writer.write("<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:" + format.version + "\">\n");
+            writer.write("<" + format.message + "><" + format.container + ">\n");
+            for (int i = 0; i < entries; i++) {
+                boolean credit = random.nextInt(10) != 0;
+                writer.write("<Ntry><Amt Ccy=\"CHF\">");
+                writer.write(amount(random).toPlainString());
+                writer.write("</Amt><CdtDbtInd>");
+                writer.write(credit ? "CRDT" : "DBIT");
+                writer.write("</CdtDbtInd><BookgDt><Dt>");
+                writer.write(bookingDate(random).toString());
+                writer.write("</Dt></BookgDt><NtryDtls><TxDtls><RltdPties><Dbtr><Pty><Nm>");
+                writer.write(donorName(donor(random, donorCount, distribution)));
+                writer.write("</Nm></Pty></Dbtr></RltdPties><RmtInf><Strd><CdtrRefInf><Ref>REF");
+                writer.write(Integer.toString(i));
+                writer.write("</Ref></CdtrRefInf></Strd></RmtInf></TxDtls></NtryDtls></Ntry>\n");
+            }
+            writer.write("</" + format.container + "></" + format.message + ">\n");
+            writer.write("</Document>\n");
+        }
+        return file;
+    }
+
+    static List<Transaction> transactions(int entries, DonorDistribution distribution) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        int donorCount = donorCount(entries, distribution);
+        List<Transaction> transactions = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            boolean credit = random.nextInt(10) != 0;
+            transactions.add(new Transaction(
+                    donorName(donor(random, donorCount, distribution)),
+                    bookingDate(random),
+                    amount(random),
+                    "REF" + i,
+                    credit ? TransactionType.CREDIT : TransactionType.DEBIT
+            ));
+        }
+        return transactions;
+    }
+
+    private static int donorCount(int entries, DonorDistribution distribution) {
+        return distribution == DonorDistribution.FEW ? 10 : Math.max(1, entries / 10);
+    }
+
+    private static int donor(SplittableRandom random, int donorCount, DonorDistribution distribution) {
+        if (distribution == DonorDistribution.SKEWED) {
+            return (int) (donorCount * Math.pow(random.nextDouble(), 3));
+        }
+        return random.nextInt(donorCount);
+    }
+
+    private static String donorName(int donor) {
+        return "Donor " + donor;
+    }
+
+    private static BigDecimal amount(SplittableRandom random) {
+        return BigDecimal.valueOf(500 + random.nextInt(50_000), 2);
+    }
+
+    private static LocalDate bookingDate(SplittableRandom random) {
+        return FIRST_BOOKING_DATE.plusDays(random.nextInt(BOOKING_DAYS));
+    }
+}
@@ -0,0 +1,89 @@
+package ch.asipiit.bankparser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CamtParserBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int entries;
+
+    @Param({"UNIFORM", "SKEWED"})
+    public BenchmarkData.DonorDistribution distribution;
+
+    @Param({"STREAMING"})
+    public ParserMode mode;
+
+    private Path camt053File;
+    private Path camt054File;
+    private CamtProcessor<?> camt053Processor;
+    private CamtProcessor<?> camt054Processor;
+    private CamtProcessingService processingService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        camt053File = BenchmarkData.writeCamtFile(BenchmarkData.CamtFormat.CAMT_053, entries, distribution);
+        camt054File = BenchmarkData.writeCamtFile(BenchmarkData.CamtFormat.CAMT_054, entries, distribution);
+        camt053Processor = CamtProcessors.create("053.001.08", mode);
+        camt054Processor = CamtProcessors.create("054.001.08", mode);
+        processingService = new CamtProcessingService(Arrays.asList(camt053Processor, camt054Processor));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(camt053File);
+        Files.deleteIfExists(camt054File);
+    }
+
+    @Benchmark
+    public List<Transaction> camt053Processor() throws IOException {
+        try (InputStream in = open(camt053File)) {
+            return camt053Processor.processTransactions(in);
+        }
+    }
+
+    @Benchmark
+    public List<Transaction> camt054Processor() throws IOException {
+        try (InputStream in = open(camt054File)) {
+            return camt054Processor.processTransactions(in);
+        }
+    }
+
+    @Benchmark
+    public TransactionBatch camt054ProcessorBatch() throws IOException {
+        try (InputStream in = open(camt054File)) {
+            return camt054Processor.processBatch(in);
+        }
+    }
+
+    @Benchmark
+    public List<Transaction> processFile() throws IOException {
+        try (InputStream in = open(camt054File)) {
+            return processingService.processFile(in);
+        }
+    }
+
+    private InputStream open(Path file) throws IOException {
+        return new BufferedInputStream(Files.newInputStream(file), 64 * 1024);
+    }
+}
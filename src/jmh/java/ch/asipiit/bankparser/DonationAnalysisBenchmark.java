@@ -0,0 +1,47 @@
+package ch.asipiit.bankparser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DonationAnalysisBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int entries;
+
+    @Param({"FEW", "UNIFORM", "SKEWED"})
+    public BenchmarkData.DonorDistribution distribution;
+
+    private List<Transaction> transactions;
+    private TransactionBatch batch;
+    private DonationAnalysisService analysisService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        transactions = BenchmarkData.transactions(entries, distribution);
+        batch = TransactionBatch.from(transactions);
+        analysisService = new DonationAnalysisService();
+    }
+
+    @Benchmark
+    public DonationAnalysis analyzeDonations() {
+        return analysisService.analyzeDonations(transactions);
+    }
+
+    @Benchmark
+    public DonationAnalysis summarizeBatch() {
+        return analysisService.summarize(new DonationAccumulator(false).addAll(batch));
+    }
+}
@@ -0,0 +1,122 @@
+package ch.asipiit.bankparser;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Puts the parsing endpoints behind {@link UploadAdmission}. Requests that are not admitted get
+ * {@code 503 Service Unavailable} with a {@code Retry-After} header. For streamed responses the
+ * reservation is held until the asynchronous part of the request has completed.
+ */
+@Component
+public class AdmissionInterceptor implements HandlerInterceptor {
+    private static final String TICKET_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".ticket";
+
+    private final UploadAdmission admission;
+
+    @Autowired
+    public AdmissionInterceptor(UploadAdmission admission) {
+        this.admission = admission;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException, InterruptedException {
+        if (request.getAttribute(TICKET_ATTRIBUTE) != null) {
+            // dispatch resuming an asynchronous request that was already admitted
+            return true;
+        }
+
+        long start = System.nanoTime();
+        UploadAdmission.Ticket ticket = admission.tryAcquire(estimate(request));
+        RequestTimings.record("admission", System.nanoTime() - start);
+        if (ticket == null) {
+            reject(response);
+            return false;
+        }
+        request.setAttribute(TICKET_ATTRIBUTE, ticket);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        UploadAdmission.Ticket ticket = (UploadAdmission.Ticket) request.getAttribute(TICKET_ATTRIBUTE);
+        if (ticket != null && request.isAsyncStarted()) {
+            // also covers timeouts and errors, which do not dispatch back through this interceptor
+            request.getAsyncContext().addListener(new ReleasingListener(ticket));
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        UploadAdmission.Ticket ticket = (UploadAdmission.Ticket) request.getAttribute(TICKET_ATTRIBUTE);
+        if (ticket != null) {
+            ticket.close();
+            request.removeAttribute(TICKET_ATTRIBUTE);
+        }
+    }
+
+    private long estimate(HttpServletRequest request) {
+        if (request instanceof MultipartHttpServletRequest multipart) {
+            long bytes = 0;
+            for (List<MultipartFile> files : multipart.getMultiFileMap().values()) {
+                for (MultipartFile file : files) {
+                    bytes += admission.estimate(file.getOriginalFilename(), file.getSize());
+                }
+            }
+            return bytes;
+        }
+        return admission.estimate(null, request.getContentLengthLong());
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        long seconds = Math.max(1, (admission.getRetryAfter().toMillis() + 999) / 1000);
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"error\":\"Too many statements are being analyzed, please retry in "
+                + seconds + " seconds\"}");
+    }
+
+    private static final class ReleasingListener implements AsyncListener {
+        private final UploadAdmission.Ticket ticket;
+
+        private ReleasingListener(UploadAdmission.Ticket ticket) {
+            this.ticket = ticket;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            ticket.close();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package ch.asipiit.bankparser;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a multi-file analysis as newline-delimited JSON: one {@code file} event per statement
+ * as the files are folded, in the order they finish, then one {@code donor} event per donor and a
+ * closing {@code summary} event. Individual donations are not retained: until the donor events are
+ * written only per-donor totals are held, and donor events carry no {@code donations}.
+ */
+@Component
+public class AnalysisEventStreamer {
+    private static final byte LINE_SEPARATOR = '\n';
+
+    private final BatchProcessingService batchProcessingService;
+    private final DonationAnalysisService analysisService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public AnalysisEventStreamer(
+            BatchProcessingService batchProcessingService,
+            DonationAnalysisService analysisService,
+            ObjectMapper objectMapper
+    ) {
+        this.batchProcessingService = batchProcessingService;
+        this.analysisService = analysisService;
+        this.objectMapper = objectMapper;
+    }
+
+    public void stream(List<? extends StatementSource> sources, OutputStream out) throws IOException {
+        EventWriter writer = new EventWriter(out);
+
+        BatchAnalysis batch;
+        try {
+            batch = batchProcessingService.analyzeFiles(sources, false, writer::writeFile);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Analysis was interrupted");
+        }
+        writer.checkError();
+
+        DonationTotals totals = analysisService.summarize(batch.getDonations(), writer::writeDonor);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("type", "summary");
+        summary.put("totalDonations", totals.getTotalDonations());
+        summary.put("donorCount", totals.getDonorCount());
+        summary.put("donorsBelowMinimum", totals.getDonorsBelowMinimum());
+        summary.put("totalTransactionsProcessed", batch.getTransactionCount());
+        summary.put("duplicatesDropped", batch.getDuplicateCount());
+        summary.put("analyzedAt", totals.getAnalyzedAt());
+        writer.write(summary);
+        writer.checkError();
+    }
+
+    /**
+     * A write failure (usually a disconnected client) is kept and reported once the batch is done
+     * rather than being mistaken for a failure of the file being processed.
+     */
+    private final class EventWriter {
+        private final OutputStream out;
+        private IOException error;
+
+        private EventWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        void writeFile(FileProcessingResult result, int index) {
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("type", "file");
+            event.put("index", index);
+            event.put("fileName", result.getFileName());
+            event.put("fileSize", result.getFileSize());
+            event.put("fileType", result.getFileType());
+            if (result.isSuccessful()) {
+                event.put("transactionsFound", result.getTransactionCount());
+                event.put("duplicatesDropped", result.getDuplicateCount());
+            } else {
+                event.put("error", result.getError());
+            }
+            write(event);
+        }
+
+        void writeDonor(DonorSummary donor) {
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("type", "donor");
+            event.put("donor", donor);
+            write(event);
+        }
+
+        void write(Map<String, Object> event) {
+            if (error != null) {
+                return;
+            }
+            try {
+                out.write(objectMapper.writeValueAsBytes(event));
+                out.write(LINE_SEPARATOR);
+                out.flush();
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+
+        void checkError() throws IOException {
+            if (error != null) {
+                throw error;
+            }
+        }
+    }
+}
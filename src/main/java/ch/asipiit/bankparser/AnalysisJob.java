@@ -0,0 +1,176 @@
+package ch.asipiit.bankparser;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class AnalysisJob {
+    private final String id;
+    private final List<String> fileNames;
+    private final boolean includeDonations;
+    private final AtomicReferenceArray<FileProcessingResult> fileResults;
+    private final AtomicInteger filesProcessed = new AtomicInteger();
+    private final Instant submittedAt = Instant.now();
+    private final AtomicBoolean claimed = new AtomicBoolean();
+    private final AtomicReference<Runnable> cleanup = new AtomicReference<>();
+
+    private volatile JobStatus status = JobStatus.QUEUED;
+    private volatile DonationAnalysis analysis;
+    private volatile long transactionCount;
+    private volatile String error;
+    private volatile Instant finishedAt;
+    private volatile Future<?> future;
+
+    public AnalysisJob(String id, List<String> fileNames, boolean includeDonations) {
+        this.id = id;
+        this.fileNames = fileNames;
+        this.includeDonations = includeDonations;
+        this.fileResults = new AtomicReferenceArray<>(fileNames.size());
+    }
+
+    /**
+     * Marks the job as running; returns false if it was cancelled before a worker got to it.
+     */
+    boolean start() {
+        if (!claimed.compareAndSet(false, true)) {
+            return false;
+        }
+        status = JobStatus.RUNNING;
+        return true;
+    }
+
+    void fileCompleted(FileProcessingResult result, int index) {
+        fileResults.set(index, result);
+        filesProcessed.incrementAndGet();
+    }
+
+    void complete(BatchAnalysis batch, DonationAnalysis analysis) {
+        for (int i = 0; i < batch.getFiles().size(); i++) {
+            fileResults.set(i, batch.getFiles().get(i));
+        }
+        filesProcessed.set(fileNames.size());
+        this.analysis = analysis;
+        this.transactionCount = batch.getTransactionCount();
+        finish(JobStatus.COMPLETED);
+    }
+
+    void fail(String error) {
+        this.error = error;
+        finish(JobStatus.FAILED);
+    }
+
+    private void finish(JobStatus finalStatus) {
+        finishedAt = Instant.now();
+        status = finalStatus;
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    Future<?> getFuture() {
+        return future;
+    }
+
+    void setCleanup(Runnable cleanup) {
+        this.cleanup.set(cleanup);
+    }
+
+    /**
+     * Runs the cleanup handed to {@link #setCleanup}, at most once however often it is called.
+     */
+    void releaseResources() {
+        Runnable pending = cleanup.getAndSet(null);
+        if (pending != null) {
+            pending.run();
+        }
+    }
+
+    /**
+     * Cancels the job; returns true if it had not started, so no worker will release its resources.
+     */
+    boolean cancel() {
+        boolean queued = claimed.compareAndSet(false, true);
+        Future<?> running = future;
+        if (running != null) {
+            running.cancel(true);
+        }
+        if (queued) {
+            fail("Job was cancelled");
+        }
+        return queued;
+    }
+
+    boolean isExpired(Instant now, Duration ttl) {
+        Instant finished = finishedAt;
+        return finished != null && finished.plus(ttl).isBefore(now);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public boolean isFinished() {
+        return status == JobStatus.COMPLETED || status == JobStatus.FAILED;
+    }
+
+    public int getTotalFiles() {
+        return fileNames.size();
+    }
+
+    public int getFilesProcessed() {
+        return filesProcessed.get();
+    }
+
+    public List<String> getFileNames() {
+        return fileNames;
+    }
+
+    /**
+     * Whether the donors of the result carry their donations.
+     */
+    public boolean isIncludeDonations() {
+        return includeDonations;
+    }
+
+    /**
+     * Per-file results in upload order; files still being processed are {@code null}.
+     */
+    public List<FileProcessingResult> getFileResults() {
+        List<FileProcessingResult> results = new ArrayList<>(fileResults.length());
+        for (int i = 0; i < fileResults.length(); i++) {
+            results.add(fileResults.get(i));
+        }
+        return results;
+    }
+
+    public DonationAnalysis getAnalysis() {
+        return analysis;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+}
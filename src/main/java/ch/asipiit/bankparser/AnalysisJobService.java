@@ -0,0 +1,196 @@
+package ch.asipiit.bankparser;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs multi-file analyses in the background so the request thread only has to accept the
+ * upload. A fixed number of workers take jobs from a bounded queue; submissions beyond that
+ * are rejected. A started job waits for {@link UploadAdmission} like any other parsing request,
+ * but without a timeout. Finished jobs are kept for a configurable time so clients can fetch results.
+ */
+@Service
+public class AnalysisJobService {
+    private static final Logger log = LoggerFactory.getLogger(AnalysisJobService.class);
+
+    private final BatchProcessingService batchProcessingService;
+    private final DonationAnalysisService analysisService;
+    private final UploadExpander uploadExpander;
+    private final UploadAdmission admission;
+    private final ThreadPoolExecutor executor;
+    private final Duration resultTtl;
+    private final Map<String, AnalysisJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AnalysisJobService(
+            BatchProcessingService batchProcessingService,
+            DonationAnalysisService analysisService,
+            UploadExpander uploadExpander,
+            UploadAdmission admission,
+            @Value("${bankparser.jobs.workers:2}") int workers,
+            @Value("${bankparser.jobs.queue-capacity:16}") int queueCapacity,
+            @Value("${bankparser.jobs.result-ttl:30m}") Duration resultTtl
+    ) {
+        this.batchProcessingService = batchProcessingService;
+        this.analysisService = analysisService;
+        this.uploadExpander = uploadExpander;
+        this.admission = admission;
+        this.resultTtl = resultTtl;
+        this.executor = new ThreadPoolExecutor(
+                workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofVirtual().name("analysis-job-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * Copies the uploads to temporary files first, because multipart content is only
+     * guaranteed to exist until the request completes. Archives are opened before the job is
+     * queued so that every statement they contain is reported as a file of its own.
+     */
+    public AnalysisJob submitUploads(List<MultipartFile> files, boolean includeDonations) throws IOException {
+        List<FileStatementSource> sources = new ArrayList<>(files.size());
+        try {
+            for (MultipartFile file : files) {
+                Path spooled = Files.createTempFile("bankparser-job-", ".upload");
+                try {
+                    file.transferTo(spooled);
+                    sources.add(new MappedFileStatementSource(file.getOriginalFilename(), spooled));
+                } catch (IOException | RuntimeException e) {
+                    Files.deleteIfExists(spooled);
+                    throw e;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            deleteSpooledFiles(sources);
+            throw e;
+        }
+
+        StatementBundle bundle;
+        try {
+            bundle = uploadExpander.expand(sources);
+        } catch (IOException | RuntimeException e) {
+            deleteSpooledFiles(sources);
+            throw e;
+        }
+        return submit(bundle.getSources(), includeDonations, () -> {
+            bundle.close();
+            deleteSpooledFiles(sources);
+        });
+    }
+
+    public AnalysisJob submit(List<? extends StatementSource> sources, Runnable cleanup) {
+        return submit(sources, false, cleanup);
+    }
+
+    /**
+     * Without {@code includeDonations} the donors of the result carry totals only, and the files
+     * are aggregated without building a transaction per entry where the store allows it.
+     */
+    public AnalysisJob submit(List<? extends StatementSource> sources, boolean includeDonations, Runnable cleanup) {
+        purgeExpiredJobs();
+
+        List<String> fileNames = sources.stream().map(StatementSource::getName).toList();
+        AnalysisJob job = new AnalysisJob(UUID.randomUUID().toString(), fileNames, includeDonations);
+        job.setCleanup(cleanup);
+        jobs.put(job.getId(), job);
+        try {
+            job.setFuture(executor.submit(() -> run(job, sources)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            job.releaseResources();
+            throw e;
+        }
+        return job;
+    }
+
+    public AnalysisJob getJob(String id) {
+        purgeExpiredJobs();
+        return jobs.get(id);
+    }
+
+    public boolean cancelJob(String id) {
+        AnalysisJob job = jobs.remove(id);
+        if (job == null) {
+            return false;
+        }
+        if (job.cancel()) {
+            // never started, so no worker will clean up after it; also free its queue slot
+            executor.remove((Runnable) job.getFuture());
+            job.releaseResources();
+        }
+        return true;
+    }
+
+    public int getQueuedJobCount() {
+        return executor.getQueue().size();
+    }
+
+    private void run(AnalysisJob job, List<? extends StatementSource> sources) {
+        if (!job.start()) {
+            return;
+        }
+        try (UploadAdmission.Ticket ticket = admission.acquire(estimate(sources))) {
+            BatchAnalysis batch =
+                    batchProcessingService.analyzeFiles(sources, job.isIncludeDonations(), job::fileCompleted);
+            job.complete(batch, analysisService.summarize(batch.getDonations()));
+        } catch (InterruptedException e) {
+            job.fail("Job was cancelled");
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Analysis job {} failed", job.getId(), e);
+            job.fail(e.getMessage());
+        } finally {
+            job.releaseResources();
+        }
+    }
+
+    private long estimate(List<? extends StatementSource> sources) {
+        long bytes = 0;
+        for (StatementSource source : sources) {
+            bytes += admission.estimate(source.getName(), source.getSize());
+        }
+        return bytes;
+    }
+
+    private void purgeExpiredJobs() {
+        Instant now = Instant.now();
+        jobs.values().removeIf(job -> job.isExpired(now, resultTtl));
+    }
+
+    private static void deleteSpooledFiles(List<FileStatementSource> sources) {
+        for (FileStatementSource source : sources) {
+            try {
+                Files.deleteIfExists(source.getFile());
+            } catch (IOException e) {
+                log.warn("Failed to delete spooled upload {}", source.getFile(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
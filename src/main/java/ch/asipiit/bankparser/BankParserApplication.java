@@ -3,10 +3,16 @@ package ch.asipiit.bankparser;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.util.Arrays;
+
 @SpringBootApplication
 public class BankParserApplication {
 
 	public static void main(String[] args) {
+		if (args.length > 0 && "batch".equals(args[0])) {
+			BatchCommand.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
 		SpringApplication.run(BankParserApplication.class, args);
 	}
 
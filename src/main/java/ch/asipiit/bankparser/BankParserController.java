@@ -6,8 +6,9 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -17,11 +18,20 @@ public class BankParserController {
 
     private final CamtProcessingService processingService;
     private final DonationAnalysisService analysisService;
+    private final TransactionStore transactionStore;
+    private final CamtSchemaValidator schemaValidator;
 
     @Autowired
-    public BankParserController(CamtProcessingService processingService, DonationAnalysisService analysisService) {
+    public BankParserController(
+            CamtProcessingService processingService,
+            DonationAnalysisService analysisService,
+            TransactionStore transactionStore,
+            CamtSchemaValidator schemaValidator
+    ) {
         this.processingService = processingService;
         this.analysisService = analysisService;
+        this.transactionStore = transactionStore;
+        this.schemaValidator = schemaValidator;
     }
 
     @GetMapping("/health")
@@ -36,10 +46,10 @@ public class BankParserController {
         }
 
         try {
-            String xmlContent = new String(file.getBytes(), StandardCharsets.UTF_8);
-
             // Process the file
-            var transactions = processingService.processFile(xmlContent);
+            List<Transaction> transactions =
+                    processingService.processStatement(new MultipartStatementSource(file)).getTransactions();
+            transactionStore.append(transactions);
             var analysis = analysisService.analyzeDonations(transactions);
 
             Map<String, Object> response = new HashMap<>();
@@ -76,13 +86,19 @@ public class BankParserController {
         }
 
         try {
-            String xmlContent = new String(file.getBytes(), StandardCharsets.UTF_8);
-            boolean isValid = processingService.canProcessFile(xmlContent);
+            boolean isValid;
+            ValidationReport report;
+            try (InputStream xmlStream = file.getInputStream()) {
+                CamtDocument document = processingService.detectFormat(xmlStream);
+                report = schemaValidator.validate(document.getNamespace(), document.getContent());
+                isValid = document.isSupported() && report.isValid();
+            }
 
             Map<String, Object> response = new HashMap<>();
             response.put("isValid", isValid);
             response.put("fileName", file.getOriginalFilename());
             response.put("fileSize", file.getSize());
+            response.put("validation", report);
 
             return ResponseEntity.ok(response);
 
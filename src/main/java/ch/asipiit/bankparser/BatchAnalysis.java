@@ -0,0 +1,33 @@
+package ch.asipiit.bankparser;
+
+import java.util.List;
+
+public class BatchAnalysis {
+    private final List<FileProcessingResult> files;
+    private final DonationAccumulator donations;
+
+    public BatchAnalysis(List<FileProcessingResult> files, DonationAccumulator donations) {
+        this.files = files;
+        this.donations = donations;
+    }
+
+    public List<FileProcessingResult> getFiles() {
+        return files;
+    }
+
+    public DonationAccumulator getDonations() {
+        return donations;
+    }
+
+    public long getTransactionCount() {
+        return donations.getTransactionCount();
+    }
+
+    public long getDuplicateCount() {
+        long duplicates = 0;
+        for (FileProcessingResult file : files) {
+            duplicates += file.getDuplicateCount();
+        }
+        return duplicates;
+    }
+}
@@ -0,0 +1,291 @@
+package ch.asipiit.bankparser;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Headless analysis of statement files for scheduled jobs, started with
+ * {@code java -jar bankParser.jar batch <directory|file|glob>...}. The same processors and
+ * services as the web application are wired by hand instead of through a Spring context, so
+ * the command starts without any framework overhead. The report goes to stdout or a file.
+ */
+public class BatchCommand {
+    static final int EXIT_OK = 0;
+    static final int EXIT_FILES_FAILED = 1;
+    static final int EXIT_USAGE = 2;
+
+    private static final String USAGE = """
+            Usage: batch [options] <directory|file|glob>...
+              --format <json|csv>      report format (default json)
+              --output <file>          write the report to a file instead of stdout
+              --mode <streaming|prowide>  CAMT parser (default streaming)
+              --concurrency <n>        files parsed in parallel (default: CPU cores)
+              --include-donations      list every donation per donor (JSON only)
+            Directories contribute their .xml, .gz and .zip files; globs such as 'in/**/*.xml' are expanded.""";
+
+    private final PrintStream out;
+    private final PrintStream err;
+
+    BatchCommand(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    public static void main(String[] args) {
+        // must be set before the first logger is created; stdout is reserved for the report
+        System.setProperty("logback.configurationFile", "logback-batch.xml");
+        System.exit(new BatchCommand(System.out, System.err).run(args));
+    }
+
+    int run(String[] args) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return EXIT_USAGE;
+        }
+        if (options.help) {
+            out.println(USAGE);
+            return EXIT_OK;
+        }
+
+        List<FileStatementSource> files;
+        try {
+            files = resolveInputs(options.inputs);
+        } catch (IOException e) {
+            err.println("Cannot read input: " + e.getMessage());
+            return EXIT_USAGE;
+        }
+        if (files.isEmpty()) {
+            err.println("No statement files found");
+            return EXIT_USAGE;
+        }
+
+        BatchProcessingService batchProcessingService = new BatchProcessingService(
+                new CamtProcessingService(CamtProcessors.all(options.mode)),
+                new TransactionStore(Path.of(""), false),
+                options.concurrency);
+        DonationAnalysisService analysisService = new DonationAnalysisService();
+        UploadExpander uploadExpander = new UploadExpander(DataSize.ofMegabytes(512), 1000);
+
+        try (StatementBundle bundle = uploadExpander.expand(files)) {
+            BatchAnalysis batch = batchProcessingService.analyzeFiles(bundle.getSources(), options.includeDonations);
+            DonationAnalysis analysis = analysisService.summarize(batch.getDonations());
+
+            int failed = 0;
+            for (FileProcessingResult result : batch.getFiles()) {
+                if (!result.isSuccessful()) {
+                    err.println(result.getFileName() + ": " + result.getError());
+                    failed++;
+                }
+            }
+            err.printf("Analyzed %d transaction(s) from %d of %d file(s), %d duplicate(s) dropped%n",
+                    batch.getTransactionCount(), batch.getFiles().size() - failed, batch.getFiles().size(),
+                    batch.getDuplicateCount());
+
+            writeReport(analysis, options);
+            return failed > 0 ? EXIT_FILES_FAILED : EXIT_OK;
+
+        } catch (IOException e) {
+            err.println("Failed to analyze files: " + e.getMessage());
+            return EXIT_FILES_FAILED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            err.println("Analysis was interrupted");
+            return EXIT_FILES_FAILED;
+        } finally {
+            batchProcessingService.shutdown();
+        }
+    }
+
+    private void writeReport(DonationAnalysis analysis, Options options) throws IOException {
+        if (options.output == null) {
+            write(analysis, options, out);
+            out.flush();
+            return;
+        }
+        try (OutputStream file = Files.newOutputStream(options.output)) {
+            write(analysis, options, file);
+        }
+    }
+
+    private static void write(DonationAnalysis analysis, Options options, OutputStream target) throws IOException {
+        if (options.format == Format.CSV) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8));
+            writeCsv(analysis, writer);
+            writer.flush();
+            return;
+        }
+
+        if (!options.includeDonations) {
+            List<DonorSummary> donors = analysis.getDonors().stream().map(DonorSummary::withoutDonations).toList();
+            analysis = new DonationAnalysis(donors, analysis.getTotalDonations(),
+                    analysis.getDonorsBelowMinimum(), analysis.getAnalyzedAt());
+        }
+        ObjectMapper mapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .build();
+        mapper.writerWithDefaultPrettyPrinter().writeValue(target, analysis);
+        target.write('\n');
+    }
+
+    static void writeCsv(DonationAnalysis analysis, Writer writer) throws IOException {
+        writer.write("donor,totalAmount,monthlyAverage,donationCount,belowMinimum\n");
+        for (DonorSummary donor : analysis.getDonors()) {
+            writer.write(csvField(donor.getName()));
+            writer.write(',');
+            writer.write(donor.getTotalAmount().toPlainString());
+            writer.write(',');
+            writer.write(donor.getMonthlyAverage().toPlainString());
+            writer.write(',');
+            writer.write(Integer.toString(donor.getDonationCount()));
+            writer.write(',');
+            writer.write(Boolean.toString(donor.isBelowMinimum()));
+            writer.write('\n');
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    static List<FileStatementSource> resolveInputs(List<String> inputs) throws IOException {
+        Set<Path> files = new LinkedHashSet<>();
+        for (String input : inputs) {
+            if (isGlob(input)) {
+                files.addAll(expandGlob(input));
+                continue;
+            }
+            Path path = Path.of(input);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> entries = Files.list(path)) {
+                    entries.filter(Files::isRegularFile)
+                            .filter(BatchCommand::isStatementFile)
+                            .sorted()
+                            .forEach(files::add);
+                }
+            } else if (Files.isRegularFile(path)) {
+                files.add(path);
+            } else {
+                throw new IOException(input + " does not exist");
+            }
+        }
+
+        List<FileStatementSource> sources = new ArrayList<>(files.size());
+        for (Path file : files) {
+            sources.add(new MappedFileStatementSource(file.toString(), file));
+        }
+        return sources;
+    }
+
+    private static List<Path> expandGlob(String input) throws IOException {
+        int firstWildcard = firstWildcard(input);
+        int separator = input.lastIndexOf('/', firstWildcard);
+        Path base = separator < 0 ? Path.of(".") : Path.of(separator == 0 ? "/" : input.substring(0, separator));
+        String pattern = input.substring(separator + 1);
+        if (!Files.isDirectory(base)) {
+            throw new IOException(base + " does not exist");
+        }
+
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        int maxDepth = pattern.contains("**") ? Integer.MAX_VALUE : (int) pattern.chars().filter(c -> c == '/').count() + 1;
+        try (Stream<Path> entries = Files.walk(base, maxDepth)) {
+            return entries.filter(Files::isRegularFile)
+                    .filter(file -> matcher.matches(base.relativize(file)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static boolean isGlob(String input) {
+        return firstWildcard(input) < input.length();
+    }
+
+    private static int firstWildcard(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            if ("*?[{".indexOf(input.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return input.length();
+    }
+
+    private static boolean isStatementFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".xml") || name.endsWith(".gz") || name.endsWith(".zip");
+    }
+
+    enum Format {
+        JSON, CSV
+    }
+
+    static final class Options {
+        private final List<String> inputs = new ArrayList<>();
+        private Format format = Format.JSON;
+        private Path output;
+        private ParserMode mode = ParserMode.STREAMING;
+        private int concurrency;
+        private boolean includeDonations;
+        private boolean help;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "--format" -> options.format = Format.valueOf(value(args, ++i, arg).toUpperCase(Locale.ROOT));
+                    case "--output" -> options.output = Path.of(value(args, ++i, arg));
+                    case "--mode" -> options.mode = ParserMode.valueOf(value(args, ++i, arg).toUpperCase(Locale.ROOT));
+                    case "--concurrency" -> options.concurrency = Integer.parseInt(value(args, ++i, arg));
+                    case "--include-donations" -> options.includeDonations = true;
+                    case "--help", "-h" -> options.help = true;
+                    default -> {
+                        if (arg.startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown option " + arg);
+                        }
+                        options.inputs.add(arg);
+                    }
+                }
+            }
+            if (options.inputs.isEmpty() && !options.help) {
+                throw new IllegalArgumentException("No input files given");
+            }
+            return options;
+        }
+
+        private static String value(String[] args, int index, String option) {
+            if (index >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            return args[index];
+        }
+    }
+}
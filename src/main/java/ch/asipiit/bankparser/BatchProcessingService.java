@@ -0,0 +1,165 @@
+package ch.asipiit.bankparser;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Parses several uploaded statements concurrently on a bounded pool of virtual threads and
+ * aggregates each one as soon as it is parsed; the per-file results keep upload order. A failing
+ * file only marks its own result as failed. Entries repeated across the files are counted once,
+ * for the first file to finish that contains them. When
+ * neither the donations nor the transactions are kept, files are parsed into a
+ * {@link TransactionBatch} and aggregated without building a transaction per entry.
+ */
+@Service
+public class BatchProcessingService {
+    private final CamtProcessingService processingService;
+    private final TransactionStore transactionStore;
+    private final ExecutorService executor;
+
+    @Autowired
+    public BatchProcessingService(
+            CamtProcessingService processingService,
+            TransactionStore transactionStore,
+            @Value("${bankparser.processing.max-concurrency:0}") int maxConcurrency
+    ) {
+        this.processingService = processingService;
+        this.transactionStore = transactionStore;
+        int threads = maxConcurrency > 0 ? maxConcurrency : Runtime.getRuntime().availableProcessors();
+        this.executor = Executors.newFixedThreadPool(threads, Thread.ofVirtual().name("camt-file-", 0).factory());
+    }
+
+    public BatchAnalysis analyzeFiles(List<? extends StatementSource> sources, boolean retainDonations)
+            throws InterruptedException {
+        return analyzeFiles(sources, retainDonations, (result, index) -> { });
+    }
+
+    /**
+     * Like {@link #analyzeFiles(List, boolean)}, additionally reporting each file's result with its
+     * upload index as soon as that file is done. The listener is called from the calling thread, in
+     * the order the files finish.
+     */
+    public BatchAnalysis analyzeFiles(
+            List<? extends StatementSource> sources,
+            boolean retainDonations,
+            ObjIntConsumer<FileProcessingResult> fileListener
+    ) throws InterruptedException {
+        RequestTimings timings = RequestTimings.current();
+        boolean columnar = !retainDonations && !transactionStore.isEnabled();
+        CompletionService<ParsedFile> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<ParsedFile>> futures = new ArrayList<>(sources.size());
+        for (StatementSource source : sources) {
+            futures.add(completionService.submit(() -> {
+                try (RequestTimings.Scope scope = RequestTimings.bind(timings)) {
+                    return columnar ? parseBatch(source) : parseFile(source);
+                }
+            }));
+        }
+
+        // Fold files as they complete, so a slow file does not hold the parsed files behind it in
+        // memory; each parsed file is released once folded
+        DuplicateFilter duplicateFilter = new DuplicateFilter();
+        List<FileProcessingResult> results = new ArrayList<>(Collections.nCopies(sources.size(), null));
+        DonationAccumulator donations = new DonationAccumulator(retainDonations);
+        try {
+            for (int done = 0; done < futures.size(); done++) {
+                Future<ParsedFile> future = completionService.take();
+                int index = futures.indexOf(future);
+                futures.set(index, null);
+                FileProcessingResult result;
+                try {
+                    result = foldFile(future.get(), duplicateFilter, donations);
+                } catch (ExecutionException e) {
+                    result = FileProcessingResult.failure(sources.get(index), "Unknown", e.getCause().getMessage());
+                }
+                results.set(index, result);
+                fileListener.accept(result, index);
+            }
+        } catch (InterruptedException e) {
+            futures.stream().filter(Objects::nonNull).forEach(future -> future.cancel(true));
+            throw e;
+        }
+        return new BatchAnalysis(results, donations);
+    }
+
+    /**
+     * Parses a file and computes its entry keys; runs on the worker threads.
+     */
+    private ParsedFile parseFile(StatementSource source) {
+        try {
+            ParsedStatement statement = processingService.processStatement(source);
+            return new ParsedFile(source, statement, null, EntryKeys.keys(statement.getTransactions()), null);
+        } catch (Exception e) {
+            return new ParsedFile(source, null, null, null, e.getMessage());
+        }
+    }
+
+    private ParsedFile parseBatch(StatementSource source) {
+        try {
+            ParsedBatch parsed = processingService.processBatch(source);
+            return new ParsedFile(source, null, parsed, EntryKeys.keys(parsed.getBatch()), null);
+        } catch (Exception e) {
+            return new ParsedFile(source, null, null, null, e.getMessage());
+        }
+    }
+
+    private FileProcessingResult foldFile(ParsedFile file, DuplicateFilter duplicateFilter,
+                                          DonationAccumulator donations) {
+        if (file.batch != null) {
+            TransactionBatch batch = file.batch.getBatch();
+            DuplicateFilter.BatchResult unique = duplicateFilter.filter(batch, file.keys);
+            donations.addAll(unique.getBatch());
+            return FileProcessingResult.success(file.source, file.batch.getFileType(), batch.size(),
+                    unique.getDuplicateCount());
+        }
+        if (file.statement == null) {
+            return FileProcessingResult.failure(file.source, "Unknown", file.error);
+        }
+        try {
+            List<Transaction> transactions = file.statement.getTransactions();
+            DuplicateFilter.Result unique = duplicateFilter.filter(transactions, file.keys);
+            transactionStore.append(unique.getTransactions());
+            donations.addAll(unique.getTransactions());
+            return FileProcessingResult.success(file.source, file.statement.getFileType(), transactions.size(),
+                    unique.getDuplicateCount());
+        } catch (Exception e) {
+            return FileProcessingResult.failure(file.source, "Unknown", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class ParsedFile {
+        private final StatementSource source;
+        private final ParsedStatement statement;
+        private final ParsedBatch batch;
+        private final long[] keys;
+        private final String error;
+
+        private ParsedFile(StatementSource source, ParsedStatement statement, ParsedBatch batch, long[] keys,
+                           String error) {
+            this.source = source;
+            this.statement = statement;
+            this.batch = batch;
+            this.keys = keys;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package ch.asipiit.bankparser;
+
+import java.io.InputStream;
+
+public class CamtDocument {
+    private final String namespace;
+    private final CamtProcessor<?> processor;
+    private final InputStream content;
+
+    public CamtDocument(String namespace, CamtProcessor<?> processor, InputStream content) {
+        this.namespace = namespace;
+        this.processor = processor;
+        this.content = content;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public CamtProcessor<?> getProcessor() {
+        return processor;
+    }
+
+    public InputStream getContent() {
+        return content;
+    }
+
+    public boolean isSupported() {
+        return processor != null;
+    }
+
+    public String getFileType() {
+        if (processor == null) {
+            return "Unknown";
+        }
+        return "CAMT." + processor.getFormatVersion().substring(0, 3);
+    }
+}
@@ -0,0 +1,53 @@
+package ch.asipiit.bankparser;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.io.StringReader;
+
+/**
+ * Reads the namespace URI of the root element of a document. Parsing stops at the first
+ * start tag, so only the prolog (XML declaration, comments, processing instructions) is ever
+ * read and detection costs the same for any file size.
+ */
+public class CamtFormatDetector {
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    public String readRootNamespace(InputStream xmlStream) {
+        try {
+            return readRootNamespace(INPUT_FACTORY.createXMLStreamReader(xmlStream));
+        } catch (XMLStreamException e) {
+            return null;
+        }
+    }
+
+    public String readRootNamespace(String xmlContent) {
+        try {
+            return readRootNamespace(INPUT_FACTORY.createXMLStreamReader(new StringReader(xmlContent)));
+        } catch (XMLStreamException e) {
+            return null;
+        }
+    }
+
+    private String readRootNamespace(XMLStreamReader reader) throws XMLStreamException {
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                    return reader.getNamespaceURI();
+                }
+            }
+            return null;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
@@ -0,0 +1,149 @@
+package ch.asipiit.bankparser;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Processor for one CAMT message version. Only the Prowide mode is version specific: it needs
+ * to know how to bind a document to its entries and how to map one entry, both handed in by
+ * {@link CamtProcessors}. The streaming mode needs nothing format specific.
+ *
+ * @param <T> the Prowide type of a single entry
+ */
+public class CamtMessageProcessor<T> implements CamtProcessor<T> {
+    private static final String NAMESPACE_PREFIX = "urn:iso:std:iso:20022:tech:xsd:camt.";
+
+    private final String formatVersion;
+    private final Function<String, List<T>> entryReader;
+    private final Function<T, Transaction> entryMapper;
+    private final ParserMode parserMode;
+    private final StreamingCamtParser streamingParser = new StreamingCamtParser();
+    private final Timer parseTimer;
+
+    /**
+     * @param entryReader binds a document with Prowide and returns its entries in document order
+     */
+    public CamtMessageProcessor(String formatVersion, Function<String, List<T>> entryReader,
+                                Function<T, Transaction> entryMapper, ParserMode parserMode,
+                                MeterRegistry meterRegistry) {
+        this.formatVersion = formatVersion;
+        this.entryReader = entryReader;
+        this.entryMapper = entryMapper;
+        this.parserMode = parserMode;
+        this.parseTimer = Timer.builder("bankparser.processor.parse")
+                .description("Time to map one CAMT document to transactions")
+                .tag("format", formatVersion)
+                .tag("mode", parserMode.name())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getNamespace() {
+        return NAMESPACE_PREFIX + formatVersion;
+    }
+
+    @Override
+    public String getFormatVersion() {
+        return formatVersion;
+    }
+
+    @Override
+    public boolean canProcess(String xmlContent) {
+        return xmlContent.contains(getNamespace());
+    }
+
+    @Override
+    public List<Transaction> processTransactions(String xmlContent) {
+        return parseTimer.record(() -> {
+            try {
+                if (parserMode == ParserMode.STREAMING) {
+                    return parseStreaming(new StringReader(xmlContent));
+                }
+                return parseWithProwide(xmlContent);
+            } catch (Exception e) {
+                throw processingFailed(e);
+            }
+        });
+    }
+
+    @Override
+    public List<Transaction> processTransactions(InputStream xmlStream) {
+        return parseTimer.record(() -> {
+            try {
+                if (parserMode == ParserMode.STREAMING) {
+                    return parseStreaming(xmlStream);
+                }
+                long start = System.nanoTime();
+                String xmlContent = new String(xmlStream.readAllBytes(), StandardCharsets.UTF_8);
+                RequestTimings.record("decode", System.nanoTime() - start);
+                return parseWithProwide(xmlContent);
+            } catch (Exception e) {
+                throw processingFailed(e);
+            }
+        });
+    }
+
+    @Override
+    public TransactionBatch processBatch(InputStream xmlStream) {
+        if (parserMode != ParserMode.STREAMING) {
+            return TransactionBatch.from(processTransactions(xmlStream));
+        }
+        return parseTimer.record(() -> {
+            try {
+                long start = System.nanoTime();
+                TransactionBatch batch = new TransactionBatch();
+                streamingParser.parse(xmlStream, batch);
+                RequestTimings.record("parse", System.nanoTime() - start);
+                return batch;
+            } catch (Exception e) {
+                throw processingFailed(e);
+            }
+        });
+    }
+
+    /**
+     * Reading, decoding and mapping are interleaved entry by entry, so they are timed as one stage.
+     */
+    private List<Transaction> parseStreaming(Reader xmlReader) throws XMLStreamException {
+        long start = System.nanoTime();
+        List<Transaction> transactions = streamingParser.parse(xmlReader);
+        RequestTimings.record("parse", System.nanoTime() - start);
+        return transactions;
+    }
+
+    private List<Transaction> parseStreaming(InputStream xmlStream) throws XMLStreamException {
+        long start = System.nanoTime();
+        List<Transaction> transactions = streamingParser.parse(xmlStream);
+        RequestTimings.record("parse", System.nanoTime() - start);
+        return transactions;
+    }
+
+    private List<Transaction> parseWithProwide(String xmlContent) {
+        long start = System.nanoTime();
+        List<T> entries = entryReader.apply(xmlContent);
+        long bound = System.nanoTime();
+        RequestTimings.record("bind", bound - start);
+
+        List<Transaction> transactions = new ArrayList<>(entries.size());
+        for (T entry : entries) {
+            transactions.add(entryMapper.apply(entry));
+        }
+        RequestTimings.record("map", System.nanoTime() - bound);
+        return transactions;
+    }
+
+    private RuntimeException processingFailed(Exception e) {
+        String format = "CAMT." + getFormatVersion().substring(0, 3);
+        return new RuntimeException("Failed to process " + format + " file: " + e.getMessage(), e);
+    }
+}
@@ -1,35 +1,238 @@
 package ch.asipiit.bankparser;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class CamtProcessingService {
-    private final List<CamtProcessor<?>> processors;
+    /**
+     * Bytes read at most while looking for the root element; documents with a longer prolog are unsupported.
+     */
+    private static final int MAX_PROLOG_SIZE = 256 * 1024;
+
+    private final CamtProcessorRegistry registry;
+    private final CamtFormatDetector formatDetector = new CamtFormatDetector();
+    private final ParseCache parseCache;
+    private final MeterRegistry meterRegistry;
+    private final Timer detectTimer;
+    private final DistributionSummary uploadSize;
+    private final Map<String, ParseMeters> parseMeters = new ConcurrentHashMap<>();
 
-    @Autowired
     public CamtProcessingService(List<CamtProcessor<?>> processors) {
-        this.processors = processors;
+        this(processors, ParseCache.disabled(), Metrics.globalRegistry);
+    }
+
+    public CamtProcessingService(List<CamtProcessor<?>> processors, ParseCache parseCache, MeterRegistry meterRegistry) {
+        this(new CamtProcessorRegistry(processors), parseCache, meterRegistry);
+    }
+
+    @Autowired
+    public CamtProcessingService(CamtProcessorRegistry registry, ParseCache parseCache, MeterRegistry meterRegistry) {
+        this.registry = registry;
+        this.parseCache = parseCache;
+        this.meterRegistry = meterRegistry;
+        this.detectTimer = Timer.builder("bankparser.detect")
+                .description("Time to read the prolog and resolve the CAMT format")
+                .register(meterRegistry);
+        this.uploadSize = DistributionSummary.builder("bankparser.upload.size")
+                .description("Size of uploaded statements")
+                .baseUnit(BaseUnits.BYTES)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public ParsedStatement processStatement(StatementSource source) throws IOException {
+        uploadSize.record(source.getSize());
+        RequestTimings.count("bytes", source.getSize());
+        try {
+            return processStatementCached(source);
+        } catch (IOException | RuntimeException e) {
+            countFailure(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Like {@link #processStatement}, but parses into a {@link TransactionBatch} without building
+     * transactions. With the parse cache on, a batch cached for the same upload is returned as is.
+     */
+    public ParsedBatch processBatch(StatementSource source) throws IOException {
+        uploadSize.record(source.getSize());
+        RequestTimings.count("bytes", source.getSize());
+        try {
+            if (!parseCache.isEnabled()) {
+                return parseBatch(source);
+            }
+
+            long start = System.nanoTime();
+            String contentHash = hash(source);
+            ParsedBatch cached = parseCache.getBatch(contentHash);
+            RequestTimings.record("cache", System.nanoTime() - start);
+            if (cached != null) {
+                RequestTimings.count("entries", cached.getBatch().size());
+                return cached;
+            }
+
+            ParsedBatch parsed = parseBatch(source);
+            parseCache.putBatch(contentHash, parsed);
+            return parsed;
+        } catch (IOException | RuntimeException e) {
+            countFailure(e);
+            throw e;
+        }
+    }
+
+    private ParsedStatement processStatementCached(StatementSource source) throws IOException {
+        if (!parseCache.isEnabled()) {
+            return parseStatement(source);
+        }
+
+        long start = System.nanoTime();
+        String contentHash = hash(source);
+        ParsedStatement cached = parseCache.get(contentHash);
+        RequestTimings.record("cache", System.nanoTime() - start);
+        if (cached != null) {
+            RequestTimings.count("entries", cached.getTransactions().size());
+            return cached;
+        }
+
+        ParsedStatement parsed = parseStatement(source);
+        parseCache.put(contentHash, parsed);
+        return parsed;
+    }
+
+    private String hash(StatementSource source) throws IOException {
+        try (InputStream content = source.openStream()) {
+            return parseCache.hash(content);
+        }
+    }
+
+    public CamtDocument detectFormat(InputStream xmlStream) throws IOException {
+        long start = System.nanoTime();
+        PrologInputStream prolog = new PrologInputStream(xmlStream, MAX_PROLOG_SIZE);
+        String namespace = formatDetector.readRootNamespace(prolog);
+        long elapsed = System.nanoTime() - start;
+        detectTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        RequestTimings.record("detect", elapsed);
+
+        // Hand on the bytes already consumed for detection followed by the rest of the upload
+        return new CamtDocument(namespace, findProcessor(namespace), prolog.replay());
+    }
+
+    public List<Transaction> processFile(CamtDocument document) {
+        if (!document.isSupported()) {
+            throw new UnsupportedCamtFormatException("No processor found for this CAMT format");
+        }
+        return document.getProcessor().processTransactions(document.getContent());
+    }
+
+    public List<Transaction> processFile(InputStream xmlStream) throws IOException {
+        return processFile(detectFormat(xmlStream));
     }
 
     public List<Transaction> processFile(String xmlContent) {
-        return processors.stream()
-                .filter(processor -> processor.canProcess(xmlContent))
-                .findFirst()
-                .map(processor -> processor.processTransactions(xmlContent))
-                .orElseThrow(() -> new UnsupportedCamtFormatException("No processor found for this CAMT format"));
+        CamtProcessor<?> processor = findProcessor(readRootNamespace(xmlContent));
+        if (processor == null) {
+            throw new UnsupportedCamtFormatException("No processor found for this CAMT format");
+        }
+        return processor.processTransactions(xmlContent);
     }
 
     public boolean canProcessFile(String xmlContent) {
-        return processors.stream()
-                .anyMatch(processor -> processor.canProcess(xmlContent));
+        return findProcessor(readRootNamespace(xmlContent)) != null;
     }
 
     public List<String> getSupportedFormats() {
-        return processors.stream()
-                .map(CamtProcessor::getFormatVersion)
-                .collect(Collectors.toList());
+        return registry.getSupportedFormats();
+    }
+
+    private ParsedStatement parseStatement(StatementSource source) throws IOException {
+        try (InputStream xmlStream = source.openStream()) {
+            return parseStatement(source, xmlStream);
+        }
+    }
+
+    private ParsedStatement parseStatement(StatementSource source, InputStream xmlStream) throws IOException {
+        long start = System.nanoTime();
+        CamtDocument document = detectFormat(xmlStream);
+        List<Transaction> transactions = processFile(document);
+        recordParse(document.getProcessor().getFormatVersion(), source.getSize(), System.nanoTime() - start,
+                transactions.size());
+        RequestTimings.count("entries", transactions.size());
+        return new ParsedStatement(document.getFileType(), transactions, false);
+    }
+
+    private ParsedBatch parseBatch(StatementSource source) throws IOException {
+        try (InputStream xmlStream = source.openStream()) {
+            long start = System.nanoTime();
+            CamtDocument document = detectFormat(xmlStream);
+            if (!document.isSupported()) {
+                throw new UnsupportedCamtFormatException("No processor found for this CAMT format");
+            }
+            TransactionBatch batch = document.getProcessor().processBatch(document.getContent());
+            recordParse(document.getProcessor().getFormatVersion(), source.getSize(), System.nanoTime() - start,
+                    batch.size());
+            RequestTimings.count("entries", batch.size());
+            return new ParsedBatch(document.getFileType(), batch);
+        }
+    }
+
+    private void recordParse(String format, long bytes, long elapsedNanos, int transactionCount) {
+        ParseMeters meters = parseMeters.computeIfAbsent(format, key -> new ParseMeters(key, meterRegistry));
+        meters.parse.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        meters.throughput.record(elapsedNanos > 0 ? bytes * 1e9 / elapsedNanos : 0);
+        meters.transactions.record(transactionCount);
+    }
+
+    private void countFailure(Exception e) {
+        meterRegistry.counter("bankparser.statement.failures", "exception", e.getClass().getSimpleName()).increment();
+    }
+
+    private String readRootNamespace(String xmlContent) {
+        return formatDetector.readRootNamespace(xmlContent);
+    }
+
+    private CamtProcessor<?> findProcessor(String namespace) {
+        return registry.find(namespace);
+    }
+
+    /**
+     * The per-format parse meters, registered on first use of a format.
+     */
+    private static final class ParseMeters {
+        private final Timer parse;
+        private final DistributionSummary throughput;
+        private final DistributionSummary transactions;
+
+        ParseMeters(String format, MeterRegistry meterRegistry) {
+            this.parse = Timer.builder("bankparser.statement.parse")
+                    .description("Time to detect and parse one uploaded statement")
+                    .tag("format", format)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.throughput = DistributionSummary.builder("bankparser.statement.throughput")
+                    .description("Parse throughput per statement")
+                    .baseUnit("bytes/s")
+                    .tag("format", format)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.transactions = DistributionSummary.builder("bankparser.statement.transactions")
+                    .description("Transactions per statement")
+                    .tag("format", format)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
     }
-}
\ No newline at end of file
+}
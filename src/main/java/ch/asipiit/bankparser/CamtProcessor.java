@@ -1,9 +1,17 @@
 package ch.asipiit.bankparser;
 
+import java.io.InputStream;
 import java.util.List;
 
 public interface CamtProcessor<T> {
     boolean canProcess(String xmlContent);
     List<Transaction> processTransactions(String xmlContent);
+    List<Transaction> processTransactions(InputStream xmlStream);
+
+    default TransactionBatch processBatch(InputStream xmlStream) {
+        return TransactionBatch.from(processTransactions(xmlStream));
+    }
+
+    String getNamespace();
     String getFormatVersion();
-}
\ No newline at end of file
+}
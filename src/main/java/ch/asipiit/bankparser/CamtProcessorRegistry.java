@@ -0,0 +1,58 @@
+package ch.asipiit.bankparser;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The CAMT processors keyed by the namespace URI of the documents they handle. The application
+ * and the batch command both get their processors from {@link CamtProcessors}; lookups stay a
+ * single hash probe.
+ */
+@Component
+public class CamtProcessorRegistry {
+    private final Map<String, CamtProcessor<?>> processorsByNamespace = new HashMap<>();
+    private final List<String> supportedFormats;
+
+    @Autowired
+    public CamtProcessorRegistry(
+            @Value("${bankparser.parser.mode:STREAMING}") ParserMode parserMode,
+            MeterRegistry meterRegistry
+    ) {
+        this(CamtProcessors.all(parserMode, meterRegistry));
+    }
+
+    public CamtProcessorRegistry(List<CamtProcessor<?>> processors) {
+        List<String> formats = new ArrayList<>(processors.size());
+        for (CamtProcessor<?> processor : processors) {
+            CamtProcessor<?> existing = processorsByNamespace.putIfAbsent(processor.getNamespace(), processor);
+            if (existing != null) {
+                throw new IllegalStateException("More than one processor handles " + processor.getNamespace());
+            }
+            formats.add(processor.getFormatVersion());
+        }
+        formats.sort(Comparator.nullsLast(Comparator.naturalOrder()));
+        this.supportedFormats = Collections.unmodifiableList(formats);
+    }
+
+    public CamtProcessor<?> find(String namespace) {
+        return namespace != null ? processorsByNamespace.get(namespace) : null;
+    }
+
+    public Collection<CamtProcessor<?>> getProcessors() {
+        return Collections.unmodifiableCollection(processorsByNamespace.values());
+    }
+
+    public List<String> getSupportedFormats() {
+        return supportedFormats;
+    }
+}
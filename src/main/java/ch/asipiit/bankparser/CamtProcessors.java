@@ -0,0 +1,101 @@
+package ch.asipiit.bankparser;
+
+import com.prowidesoftware.swift.model.mx.MxCamt05200108;
+import com.prowidesoftware.swift.model.mx.MxCamt05300104;
+import com.prowidesoftware.swift.model.mx.MxCamt05300108;
+import com.prowidesoftware.swift.model.mx.MxCamt05400104;
+import com.prowidesoftware.swift.model.mx.MxCamt05400108;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The supported CAMT message versions. Each version only says how Prowide binds the message and
+ * where its entries are; supporting another version takes one more {@code define} here.
+ */
+public final class CamtProcessors {
+    private static final Map<String, Definition<?>> VERSIONS = new LinkedHashMap<>();
+
+    static {
+        define("052.001.08", MxCamt05200108::parse,
+                message -> message.getBkToCstmrAcctRpt().getRpt(), report -> report.getNtry(),
+                ReportEntryMapper::toTransaction);
+        define("053.001.04", MxCamt05300104::parse,
+                message -> message.getBkToCstmrStmt().getStmt(), statement -> statement.getNtry(),
+                ReportEntryMapper::toTransaction);
+        define("053.001.08", MxCamt05300108::parse,
+                message -> message.getBkToCstmrStmt().getStmt(), statement -> statement.getNtry(),
+                ReportEntryMapper::toTransaction);
+        define("054.001.04", MxCamt05400104::parse,
+                message -> message.getBkToCstmrDbtCdtNtfctn().getNtfctn(), notification -> notification.getNtry(),
+                ReportEntryMapper::toTransaction);
+        define("054.001.08", MxCamt05400108::parse,
+                message -> message.getBkToCstmrDbtCdtNtfctn().getNtfctn(), notification -> notification.getNtry(),
+                ReportEntryMapper::toTransaction);
+    }
+
+    private CamtProcessors() {
+    }
+
+    public static List<CamtProcessor<?>> all(ParserMode parserMode) {
+        return all(parserMode, Metrics.globalRegistry);
+    }
+
+    public static List<CamtProcessor<?>> all(ParserMode parserMode, MeterRegistry meterRegistry) {
+        List<CamtProcessor<?>> processors = new ArrayList<>(VERSIONS.size());
+        for (Definition<?> definition : VERSIONS.values()) {
+            processors.add(definition.create(parserMode, meterRegistry));
+        }
+        return processors;
+    }
+
+    public static CamtProcessor<?> create(String formatVersion, ParserMode parserMode) {
+        return create(formatVersion, parserMode, Metrics.globalRegistry);
+    }
+
+    public static CamtProcessor<?> create(String formatVersion, ParserMode parserMode, MeterRegistry meterRegistry) {
+        Definition<?> definition = VERSIONS.get(formatVersion);
+        if (definition == null) {
+            throw new IllegalArgumentException("Unsupported CAMT format version: " + formatVersion);
+        }
+        return definition.create(parserMode, meterRegistry);
+    }
+
+    /**
+     * @param containers the statements, reports or notifications of a bound message
+     * @param entries    the entries of one of them
+     */
+    private static <M, C, E> void define(String formatVersion, Function<String, M> parse,
+                                         Function<M, List<C>> containers, Function<C, List<E>> entries,
+                                         Function<E, Transaction> mapper) {
+        Function<String, List<E>> entryReader = xmlContent -> {
+            List<E> result = new ArrayList<>();
+            for (C container : containers.apply(parse.apply(xmlContent))) {
+                result.addAll(entries.apply(container));
+            }
+            return result;
+        };
+        VERSIONS.put(formatVersion, new Definition<>(formatVersion, entryReader, mapper));
+    }
+
+    private static final class Definition<E> {
+        private final String formatVersion;
+        private final Function<String, List<E>> entryReader;
+        private final Function<E, Transaction> mapper;
+
+        Definition(String formatVersion, Function<String, List<E>> entryReader, Function<E, Transaction> mapper) {
+            this.formatVersion = formatVersion;
+            this.entryReader = entryReader;
+            this.mapper = mapper;
+        }
+
+        CamtMessageProcessor<E> create(ParserMode parserMode, MeterRegistry meterRegistry) {
+            return new CamtMessageProcessor<>(formatVersion, entryReader, mapper, parserMode, meterRegistry);
+        }
+    }
+}
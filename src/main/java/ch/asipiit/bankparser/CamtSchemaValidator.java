@@ -0,0 +1,199 @@
+package ch.asipiit.bankparser;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streams a statement through the XSD of its CAMT version, loaded from
+ * {@code <schema-location>/camt.xxx.001.yy.xsd} on the classpath. Schemas are compiled once and
+ * shared; a validator is cheap and created per document. Startup fails while a supported version
+ * has no usable XSD, unless {@code require-schemas} is off; its documents are then only checked
+ * for well-formedness. Validation stops after {@code max-errors} errors, so neither memory nor
+ * time depends on the size of a broken file.
+ */
+@Component
+public class CamtSchemaValidator {
+    private static final Logger log = LoggerFactory.getLogger(CamtSchemaValidator.class);
+
+    private final String schemaLocation;
+    private final int maxErrors;
+    private final SAXParserFactory parserFactory = createParserFactory();
+    private final Map<String, Optional<Schema>> schemas = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CamtSchemaValidator(
+            @Value("${bankparser.validation.schema-location:xsd}") String schemaLocation,
+            @Value("${bankparser.validation.max-errors:10}") int maxErrors,
+            @Value("${bankparser.validation.require-schemas:true}") boolean requireSchemas,
+            CamtProcessorRegistry registry
+    ) {
+        this(schemaLocation, maxErrors);
+        List<String> missing = new ArrayList<>();
+        for (CamtProcessor<?> processor : registry.getProcessors()) {
+            if (!hasSchema(processor.getNamespace())) {
+                missing.add(processor.getNamespace());
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        if (requireSchemas) {
+            throw new IllegalStateException("No usable XSD under " + this.schemaLocation + " for " + missing
+                    + "; add the schemas or set bankparser.validation.require-schemas=false");
+        }
+        log.warn("No usable XSD under {} for {}, their documents are only checked for well-formedness",
+                this.schemaLocation, missing);
+    }
+
+    public CamtSchemaValidator(String schemaLocation, int maxErrors) {
+        this.schemaLocation = schemaLocation.endsWith("/") ? schemaLocation : schemaLocation + "/";
+        this.maxErrors = Math.max(1, maxErrors);
+    }
+
+    /**
+     * Whether documents of {@code namespace} are validated against an XSD; compiles it if not done yet.
+     */
+    public boolean hasSchema(String namespace) {
+        String schemaName = schemaName(namespace);
+        return schemaName != null && findSchema(schemaName) != null;
+    }
+
+    public ValidationReport validate(String namespace, InputStream xmlStream) throws IOException {
+        String schemaName = schemaName(namespace);
+        Schema schema = schemaName != null ? findSchema(schemaName) : null;
+        ErrorCollector collector = new ErrorCollector(maxErrors);
+        try {
+            XMLReader reader = parserFactory.newSAXParser().getXMLReader();
+            InputSource input = new InputSource(xmlStream);
+            if (schema != null) {
+                Validator validator = schema.newValidator();
+                validator.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+                validator.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+                validator.setErrorHandler(collector);
+                validator.validate(new SAXSource(reader, input));
+            } else {
+                reader.setErrorHandler(collector);
+                reader.parse(input);
+            }
+        } catch (ValidationStoppedException e) {
+            // the collector has recorded why
+        } catch (SAXParseException e) {
+            collector.add(e);
+        } catch (SAXException | ParserConfigurationException e) {
+            throw new IOException("Failed to validate document: " + e.getMessage(), e);
+        }
+
+        return schema != null
+                ? new ValidationReport(ValidationReport.MODE_SCHEMA, schemaName, collector.errors, collector.truncated)
+                : new ValidationReport(ValidationReport.MODE_WELL_FORMED, null, collector.errors, collector.truncated);
+    }
+
+    private Schema findSchema(String schemaName) {
+        return schemas.computeIfAbsent(schemaName, this::compile).orElse(null);
+    }
+
+    private Optional<Schema> compile(String schemaName) {
+        URL resource = CamtSchemaValidator.class.getClassLoader().getResource(schemaLocation + schemaName);
+        if (resource == null) {
+            log.debug("No XSD for {} on the classpath, checking well-formedness only", schemaName);
+            return Optional.empty();
+        }
+        try (InputStream xsd = resource.openStream()) {
+            SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+            return Optional.of(factory.newSchema(new StreamSource(xsd, resource.toExternalForm())));
+        } catch (SAXException | IOException e) {
+            log.warn("Failed to compile {}, checking well-formedness only: {}", schemaName, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static String schemaName(String namespace) {
+        if (namespace == null) {
+            return null;
+        }
+        String version = namespace.substring(namespace.lastIndexOf(':') + 1);
+        return version.startsWith("camt.") ? version + ".xsd" : null;
+    }
+
+    private static SAXParserFactory createParserFactory() {
+        try {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return factory;
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IllegalStateException("Cannot configure XML parser", e);
+        }
+    }
+
+    private static final class ErrorCollector implements ErrorHandler {
+        private final int maxErrors;
+        private final List<ValidationReport.Diagnostic> errors = new ArrayList<>();
+        private boolean truncated;
+
+        private ErrorCollector(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        @Override
+        public void warning(SAXParseException exception) {
+        }
+
+        @Override
+        public void error(SAXParseException exception) throws SAXException {
+            add(exception);
+            if (errors.size() >= maxErrors) {
+                truncated = true;
+                throw new ValidationStoppedException();
+            }
+        }
+
+        @Override
+        public void fatalError(SAXParseException exception) throws SAXException {
+            add(exception);
+            // the parser cannot continue after a fatal error
+            throw new ValidationStoppedException();
+        }
+
+        void add(SAXParseException exception) {
+            if (errors.size() < maxErrors) {
+                errors.add(new ValidationReport.Diagnostic(
+                        exception.getLineNumber(), exception.getColumnNumber(), exception.getMessage()));
+            }
+        }
+    }
+
+    private static final class ValidationStoppedException extends SAXException {
+        private ValidationStoppedException() {
+            super("Validation stopped");
+        }
+    }
+}
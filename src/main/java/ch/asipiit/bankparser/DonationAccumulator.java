@@ -0,0 +1,89 @@
+package ch.asipiit.bankparser;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-donor accumulators for a set of transactions. Accumulators are associative under
+ * {@link #merge}, so each file or chunk can be aggregated on its own and combined later
+ * without keeping the parsed transaction lists around. Merging in upload order keeps
+ * each donor's donation list in the same order as a single pass would.
+ */
+public class DonationAccumulator {
+    private final boolean retainDonations;
+    private final Map<String, DonorAccumulator> donors = new HashMap<>();
+    private long transactionCount;
+
+    public DonationAccumulator() {
+        this(true);
+    }
+
+    public DonationAccumulator(boolean retainDonations) {
+        this.retainDonations = retainDonations;
+    }
+
+    public void add(Transaction transaction) {
+        transactionCount++;
+        if (transaction.getType() == TransactionType.CREDIT) {
+            donors.computeIfAbsent(transaction.getDebtorName(), name -> new DonorAccumulator(name, retainDonations))
+                    .add(transaction);
+        }
+    }
+
+    public DonationAccumulator addAll(List<Transaction> transactions) {
+        for (Transaction transaction : transactions) {
+            add(transaction);
+        }
+        return this;
+    }
+
+    /**
+     * Adds the rows of a batch, keeping amounts in minor units. Retained donations are rebuilt
+     * from the rows and so have no reference.
+     */
+    public DonationAccumulator addAll(TransactionBatch batch) {
+        transactionCount += batch.size();
+        DonorAccumulator[] byDonorId = new DonorAccumulator[batch.getDonorCount()];
+        for (int i = 0; i < batch.size(); i++) {
+            if (!batch.isCredit(i)) {
+                continue;
+            }
+            int donorId = batch.getDonorId(i);
+            DonorAccumulator donor = byDonorId[donorId];
+            if (donor == null) {
+                donor = donors.computeIfAbsent(batch.getDonorName(donorId),
+                        name -> new DonorAccumulator(name, retainDonations));
+                byDonorId[donorId] = donor;
+            }
+            if (retainDonations) {
+                donor.add(batch.toTransaction(i));
+            } else {
+                donor.add(batch.getEpochDay(i), batch.getAmountMinor(i));
+            }
+        }
+        return this;
+    }
+
+    public DonationAccumulator merge(DonationAccumulator other) {
+        transactionCount += other.transactionCount;
+        for (DonorAccumulator donor : other.donors.values()) {
+            DonorAccumulator existing = donors.get(donor.getName());
+            if (existing == null) {
+                donors.put(donor.getName(), new DonorAccumulator(donor.getName(), retainDonations).merge(donor));
+            } else {
+                existing.merge(donor);
+            }
+        }
+        return this;
+    }
+
+    public Collection<DonorAccumulator> getDonors() {
+        return donors.values();
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+}
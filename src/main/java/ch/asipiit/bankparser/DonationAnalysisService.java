@@ -1,89 +1,161 @@
 package ch.asipiit.bankparser;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 public class DonationAnalysisService {
     private static final BigDecimal MINIMUM_MONTHLY_DONATION = new BigDecimal("30.00");
 
-    public DonationAnalysis analyzeDonations(List<Transaction> transactions) {
-        Map<String, List<Transaction>> donationsByDonor = transactions.stream()
-                .filter(t -> t.getType() == TransactionType.CREDIT)
-                .collect(Collectors.groupingBy(Transaction::getDebtorName));
-
-        List<DonorSummary> donorSummaries = calculateDonorSummaries(donationsByDonor);
+    private final Timer transactionsTimer;
+    private final Timer accumulatorTimer;
+    private final Timer rollupTimer;
+    private final DistributionSummary donorsPerAnalysis;
 
-        return new DonationAnalysis(
-                donorSummaries,
-                calculateTotalDonations(donorSummaries),
-                countDonorsBelowMinimum(donorSummaries),
-                LocalDateTime.now()
-        );
+    public DonationAnalysisService() {
+        this(Metrics.globalRegistry);
     }
 
-    private List<DonorSummary> calculateDonorSummaries(Map<String, List<Transaction>> donationsByDonor) {
-        return donationsByDonor.entrySet().stream()
-                .map(entry -> createDonorSummary(entry.getKey(), entry.getValue()))
-                .collect(Collectors.toList());
+    @Autowired
+    public DonationAnalysisService(MeterRegistry meterRegistry) {
+        this.transactionsTimer = analysisTimer("transactions", meterRegistry);
+        this.accumulatorTimer = analysisTimer("accumulator", meterRegistry);
+        this.rollupTimer = analysisTimer("rollup", meterRegistry);
+        this.donorsPerAnalysis = DistributionSummary.builder("bankparser.analysis.donors")
+                .description("Donors per analysis")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
-    private DonorSummary createDonorSummary(String donorName, List<Transaction> donations) {
-        BigDecimal total = donations.stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    public DonationAnalysis analyzeDonations(List<Transaction> transactions) {
+        return analyze(transactionsTimer, () -> toAnalysis(new DonationAccumulator().addAll(transactions)));
+    }
 
-        BigDecimal monthlyAverage = calculateMonthlyAverage(donations);
+    public DonationAnalysis summarize(DonationAccumulator accumulator) {
+        return analyze(accumulatorTimer, () -> toAnalysis(accumulator));
+    }
 
-        return new DonorSummary(
-                donorName,
-                total,
-                monthlyAverage,
-                monthlyAverage.compareTo(MINIMUM_MONTHLY_DONATION) < 0,
-                donations
-        );
+    /**
+     * Hands each donor summary to {@code consumer} as soon as it is built instead of collecting them.
+     */
+    public DonationTotals summarize(DonationAccumulator accumulator, Consumer<DonorSummary> consumer) {
+        return analyze(accumulatorTimer, () -> summarizeDonors(accumulator, consumer));
     }
 
-    private BigDecimal calculateMonthlyAverage(List<Transaction> donations) {
-        if (donations.isEmpty()) return BigDecimal.ZERO;
+    private DonationAnalysis toAnalysis(DonationAccumulator accumulator) {
+        List<DonorSummary> donorSummaries = new ArrayList<>(accumulator.getDonors().size());
+        DonationTotals totals = summarizeDonors(accumulator, donorSummaries::add);
 
-        LocalDate firstDonation = donations.stream()
-                .map(Transaction::getDate)
-                .min(LocalDate::compareTo)
-                .get();
+        return new DonationAnalysis(
+                donorSummaries,
+                totals.getTotalDonations(),
+                totals.getDonorsBelowMinimum(),
+                totals.getAnalyzedAt()
+        );
+    }
 
-        LocalDate lastDonation = donations.stream()
-                .map(Transaction::getDate)
-                .max(LocalDate::compareTo)
-                .get();
+    private DonationTotals summarizeDonors(DonationAccumulator accumulator, Consumer<DonorSummary> consumer) {
+        BigDecimal totalDonations = BigDecimal.ZERO;
+        int donorCount = 0;
+        int donorsBelowMinimum = 0;
+
+        for (DonorAccumulator donor : accumulator.getDonors()) {
+            DonorSummary summary = donor.toSummary(MINIMUM_MONTHLY_DONATION);
+            consumer.accept(summary);
+            totalDonations = totalDonations.add(summary.getTotalAmount());
+            donorCount++;
+            if (summary.isBelowMinimum()) {
+                donorsBelowMinimum++;
+            }
+        }
+
+        donorsPerAnalysis.record(donorCount);
+        return new DonationTotals(totalDonations, donorCount, donorsBelowMinimum, LocalDateTime.now());
+    }
 
-        long monthsBetween = java.time.temporal.ChronoUnit.MONTHS.between(
-                firstDonation.withDayOfMonth(1),
-                lastDonation.withDayOfMonth(1)
-        ) + 1;
+    /**
+     * Summarizes monthly rollups; the monthly average spans the donor's first to last month
+     * with a donation, as for individual transactions. The summaries carry no donation lists,
+     * see {@link #withDonations}.
+     */
+    public DonationAnalysis analyzeMonthly(List<DonorMonths> donors) {
+        return analyze(rollupTimer, () -> aggregateMonthly(donors));
+    }
 
-        BigDecimal total = donations.stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private DonationAnalysis aggregateMonthly(List<DonorMonths> donors) {
+        List<DonorSummary> donorSummaries = new ArrayList<>(donors.size());
+        long totalDonations = 0;
+        int donorsBelowMinimum = 0;
+        for (DonorMonths donor : donors) {
+            BigDecimal total = donor.getTotal();
+            BigDecimal monthlyAverage = total.divide(BigDecimal.valueOf(donor.getMonthSpan()), 2, RoundingMode.HALF_UP);
+            boolean belowMinimum = monthlyAverage.compareTo(MINIMUM_MONTHLY_DONATION) < 0;
+
+            donorSummaries.add(new DonorSummary(
+                    donor.getName(), total, monthlyAverage, belowMinimum, donor.getCount(), null));
+            totalDonations += donor.getTotalMinor();
+            if (belowMinimum) {
+                donorsBelowMinimum++;
+            }
+        }
+
+        donorsPerAnalysis.record(donorSummaries.size());
+        return new DonationAnalysis(
+                donorSummaries,
+                TransactionBatch.fromMinorUnits(totalDonations),
+                donorsBelowMinimum,
+                LocalDateTime.now()
+        );
+    }
 
-        return total.divide(BigDecimal.valueOf(monthsBetween), 2, BigDecimal.ROUND_HALF_UP);
+    /**
+     * Attaches to each donor of {@code analysis} the donations among {@code transactions}, in
+     * their order there.
+     */
+    public DonationAnalysis withDonations(DonationAnalysis analysis, List<Transaction> transactions) {
+        Map<String, List<Transaction>> donations = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            if (transaction.getType() == TransactionType.CREDIT) {
+                donations.computeIfAbsent(transaction.getDebtorName(), name -> new ArrayList<>()).add(transaction);
+            }
+        }
+
+        List<DonorSummary> donors = new ArrayList<>(analysis.getDonors().size());
+        for (DonorSummary donor : analysis.getDonors()) {
+            donors.add(donor.withDonations(donations.getOrDefault(donor.getName(), List.of())));
+        }
+        return new DonationAnalysis(donors, analysis.getTotalDonations(), analysis.getDonorsBelowMinimum(),
+                analysis.getAnalyzedAt());
     }
 
-    private BigDecimal calculateTotalDonations(List<DonorSummary> summaries) {
-        return summaries.stream()
-                .map(DonorSummary::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private static <T> T analyze(Timer timer, Supplier<T> analysis) {
+        long start = System.nanoTime();
+        try {
+            return timer.record(analysis);
+        } finally {
+            RequestTimings.record("analyze", System.nanoTime() - start);
+        }
     }
 
-    private int countDonorsBelowMinimum(List<DonorSummary> summaries) {
-        return (int) summaries.stream()
-                .filter(DonorSummary::isBelowMinimum)
-                .count();
+    private static Timer analysisTimer(String input, MeterRegistry meterRegistry) {
+        return Timer.builder("bankparser.analysis")
+                .description("Time to aggregate transactions into a donation analysis")
+                .tag("input", input)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 }
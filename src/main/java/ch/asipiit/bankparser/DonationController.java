@@ -6,12 +6,19 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -20,11 +27,35 @@ public class DonationController {
 
     private final CamtProcessingService processingService;
     private final DonationAnalysisService analysisService;
+    private final BatchProcessingService batchProcessingService;
+    private final TransactionStore transactionStore;
+    private final AnalysisJobService jobService;
+    private final AnalysisEventStreamer eventStreamer;
+    private final DonorQueryService donorQueryService;
+    private final UploadExpander uploadExpander;
+    private final CamtSchemaValidator schemaValidator;
 
     @Autowired
-    public DonationController(CamtProcessingService processingService, DonationAnalysisService analysisService) {
+    public DonationController(
+            CamtProcessingService processingService,
+            DonationAnalysisService analysisService,
+            BatchProcessingService batchProcessingService,
+            TransactionStore transactionStore,
+            AnalysisJobService jobService,
+            AnalysisEventStreamer eventStreamer,
+            DonorQueryService donorQueryService,
+            UploadExpander uploadExpander,
+            CamtSchemaValidator schemaValidator
+    ) {
         this.processingService = processingService;
         this.analysisService = analysisService;
+        this.batchProcessingService = batchProcessingService;
+        this.transactionStore = transactionStore;
+        this.jobService = jobService;
+        this.eventStreamer = eventStreamer;
+        this.donorQueryService = donorQueryService;
+        this.uploadExpander = uploadExpander;
+        this.schemaValidator = schemaValidator;
     }
 
     @PostMapping(value = "/donations/analyze-single", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -33,17 +64,28 @@ public class DonationController {
             return ResponseEntity.badRequest().body(createErrorResponse("File is empty"));
         }
 
-        try {
-            String xmlContent = new String(file.getBytes(), StandardCharsets.UTF_8);
-            String fileType = determineFileType(xmlContent);
-
-            var transactions = processingService.processFile(xmlContent);
+        try (StatementBundle bundle = uploadExpander.expand(List.of(new MultipartStatementSource(file)))) {
+            // an archive counts as one file here; its statements are analyzed together
+            Set<String> fileTypes = new LinkedHashSet<>();
+            List<Transaction> transactions = new ArrayList<>();
+            DuplicateFilter duplicateFilter = new DuplicateFilter();
+            int duplicates = 0;
+            for (StatementSource source : bundle.getSources()) {
+                ParsedStatement statement = processingService.processStatement(source);
+                fileTypes.add(statement.getFileType());
+                DuplicateFilter.Result unique = duplicateFilter.filter(statement.getTransactions());
+                transactions.addAll(unique.getTransactions());
+                duplicates += unique.getDuplicateCount();
+            }
+            String fileType = String.join(", ", fileTypes);
+            transactionStore.append(transactions);
             var analysis = analysisService.analyzeDonations(transactions);
 
             Map<String, Object> response = new HashMap<>();
             response.put("analysis", analysis);
             response.put("fileInfo", createFileInfo(file, fileType));
             response.put("transactionsProcessed", transactions.size());
+            response.put("duplicatesDropped", duplicates);
 
             return ResponseEntity.ok(response);
 
@@ -54,40 +96,182 @@ public class DonationController {
     }
 
     @PostMapping(value = "/donations/analyze-multiple", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<?> analyzeMultipleFiles(@RequestParam("files") List<MultipartFile> files) {
+    public ResponseEntity<?> analyzeMultipleFiles(
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestParam(defaultValue = "true") boolean includeDonations) {
         if (files.isEmpty()) {
             return ResponseEntity.badRequest().body(createErrorResponse("No files provided"));
         }
 
-        try {
-            List<Transaction> allTransactions = new ArrayList<>();
-            List<Map<String, Object>> processedFiles = new ArrayList<>();
+        List<MultipartStatementSource> uploads = files.stream()
+                .map(MultipartStatementSource::new)
+                .toList();
+        try (StatementBundle bundle = uploadExpander.expand(uploads)) {
+            BatchAnalysis batch = batchProcessingService.analyzeFiles(bundle.getSources(), includeDonations);
+            var analysis = analysisService.summarize(batch.getDonations());
 
-            for (MultipartFile file : files) {
-                String xmlContent = new String(file.getBytes(), StandardCharsets.UTF_8);
-                String fileType = determineFileType(xmlContent);
+            Map<String, Object> response = new HashMap<>();
+            response.put("analysis", analysis);
+            response.put("processedFiles", createFileInfos(batch.getFiles()));
+            response.put("totalTransactionsProcessed", batch.getTransactionCount());
+            response.put("duplicatesDropped", batch.getDuplicateCount());
 
-                var transactions = processingService.processFile(xmlContent);
-                allTransactions.addAll(transactions);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Failed to process files: " + e.getMessage()));
+        }
+    }
 
-                Map<String, Object> fileInfo = createFileInfo(file, fileType);
-                fileInfo.put("transactionsFound", transactions.size());
-                processedFiles.add(fileInfo);
+    @PostMapping(value = "/donations/analyze-multiple/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> streamMultipleFiles(@RequestParam("files") List<MultipartFile> files) {
+        if (files.isEmpty()) {
+            return ResponseEntity.badRequest().body(createErrorResponse("No files provided"));
+        }
+
+        List<MultipartStatementSource> uploads = files.stream()
+                .map(MultipartStatementSource::new)
+                .toList();
+        // the body is written on another thread; stages timed there still belong to this request
+        RequestTimings timings = RequestTimings.current();
+        StreamingResponseBody body = out -> {
+            try (RequestTimings.Scope scope = RequestTimings.bind(timings);
+                 StatementBundle bundle = uploadExpander.expand(uploads)) {
+                eventStreamer.stream(bundle.getSources(), out);
             }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
 
-            var analysis = analysisService.analyzeDonations(allTransactions);
+    @PostMapping(value = "/donations/jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> submitJob(
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestParam(defaultValue = "false") boolean includeDonations) {
+        if (files.isEmpty()) {
+            return ResponseEntity.badRequest().body(createErrorResponse("No files provided"));
+        }
+
+        try {
+            AnalysisJob job = jobService.submitUploads(files, includeDonations);
 
             Map<String, Object> response = new HashMap<>();
-            response.put("analysis", analysis);
-            response.put("processedFiles", processedFiles);
-            response.put("totalTransactionsProcessed", allTransactions.size());
+            response.put("jobId", job.getId());
+            response.put("status", job.getStatus());
+            response.put("totalFiles", job.getTotalFiles());
+            response.put("statusUrl", "/api/v1/donations/jobs/" + job.getId());
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
 
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(createErrorResponse("Too many analysis jobs queued, please retry later"));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(createErrorResponse("Failed to process files: " + e.getMessage()));
+                    .body(createErrorResponse("Failed to submit files: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/donations/jobs/{jobId}")
+    public ResponseEntity<?> getJobStatus(@PathVariable String jobId) {
+        AnalysisJob job = jobService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(createErrorResponse("Unknown or expired job"));
+        }
+
+        List<Map<String, Object>> files = new ArrayList<>();
+        List<FileProcessingResult> results = job.getFileResults();
+        for (int i = 0; i < results.size(); i++) {
+            FileProcessingResult result = results.get(i);
+            Map<String, Object> fileInfo;
+            if (result != null) {
+                fileInfo = createFileInfo(result);
+                fileInfo.put("completed", true);
+            } else {
+                fileInfo = new HashMap<>();
+                fileInfo.put("fileName", job.getFileNames().get(i));
+                fileInfo.put("completed", false);
+            }
+            files.add(fileInfo);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobId", job.getId());
+        response.put("status", job.getStatus());
+        response.put("totalFiles", job.getTotalFiles());
+        response.put("filesProcessed", job.getFilesProcessed());
+        response.put("files", files);
+        response.put("submittedAt", job.getSubmittedAt());
+        response.put("finishedAt", job.getFinishedAt());
+        if (job.getError() != null) {
+            response.put("error", job.getError());
+        }
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/donations/jobs/{jobId}/result")
+    public ResponseEntity<?> getJobResult(
+            @PathVariable String jobId,
+            @RequestParam(defaultValue = "true") boolean includeDonors) {
+        AnalysisJob job = jobService.getJob(jobId);
+        ResponseEntity<?> notCompleted = checkCompleted(job);
+        if (notCompleted != null) {
+            return notCompleted;
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("analysis", includeDonors ? job.getAnalysis() : createAnalysisSummary(job.getAnalysis()));
+        response.put("processedFiles", createFileInfos(job.getFileResults()));
+        response.put("totalTransactionsProcessed", job.getTransactionCount());
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/donations/jobs/{jobId}/donors")
+    public ResponseEntity<?> queryJobDonors(@PathVariable String jobId, DonorQuery query) {
+        AnalysisJob job = jobService.getJob(jobId);
+        ResponseEntity<?> notCompleted = checkCompleted(job);
+        if (notCompleted != null) {
+            return notCompleted;
+        }
+
+        try {
+            return ResponseEntity.ok(donorQueryService.query(job.getAnalysis().getDonors(), query));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/donations/jobs/{jobId}/donors/{donorName}/donations")
+    public ResponseEntity<?> getJobDonorDonations(@PathVariable String jobId, @PathVariable String donorName) {
+        AnalysisJob job = jobService.getJob(jobId);
+        ResponseEntity<?> notCompleted = checkCompleted(job);
+        if (notCompleted != null) {
+            return notCompleted;
         }
+
+        if (!job.isIncludeDonations()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(createErrorResponse("Job was submitted without includeDonations=true"));
+        }
+
+        DonorSummary donor = donorQueryService.findDonor(job.getAnalysis().getDonors(), donorName);
+        if (donor == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(createErrorResponse("Unknown donor"));
+        }
+        return ResponseEntity.ok(donor.getDonations());
+    }
+
+    @DeleteMapping("/donations/jobs/{jobId}")
+    public ResponseEntity<?> cancelJob(@PathVariable String jobId) {
+        if (!jobService.cancelJob(jobId)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(createErrorResponse("Unknown or expired job"));
+        }
+        return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/donations/validate")
@@ -97,13 +281,19 @@ public class DonationController {
         }
 
         try {
-            String xmlContent = new String(file.getBytes(), StandardCharsets.UTF_8);
-            String fileType = determineFileType(xmlContent);
-            boolean isValid = processingService.canProcessFile(xmlContent);
+            CamtDocument document;
+            ValidationReport report;
+            try (InputStream xmlStream = file.getInputStream()) {
+                document = processingService.detectFormat(xmlStream);
+                report = schemaValidator.validate(document.getNamespace(), document.getContent());
+            }
+            String fileType = document.getFileType();
+            boolean isValid = document.isSupported() && report.isValid();
 
             Map<String, Object> response = new HashMap<>();
             response.put("isValid", isValid);
             response.put("fileInfo", createFileInfo(file, fileType));
+            response.put("validation", report);
 
             return ResponseEntity.ok(response);
 
@@ -116,9 +306,67 @@ public class DonationController {
     @GetMapping("/donations/report")
     public ResponseEntity<?> getDonationReport(
             @RequestParam(required = false) String startDate,
-            @RequestParam(required = false) String endDate) {
-        // TODO: Implement donation reporting with date ranges
-        return ResponseEntity.ok().build();
+            @RequestParam(required = false) String endDate,
+            @RequestParam(defaultValue = "false") boolean includeDonations) {
+        if (!transactionStore.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(createErrorResponse("Transaction history is disabled"));
+        }
+
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = startDate != null ? LocalDate.parse(startDate) : null;
+            to = endDate != null ? LocalDate.parse(endDate) : null;
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse("Invalid date: " + e.getParsedString()));
+        }
+
+        try {
+            DonationRollup rollup = transactionStore.findDonationRollup(from, to);
+            DonationAnalysis analysis = analysisService.analyzeMonthly(rollup.findDonors(null, null));
+            long transactionsProcessed = rollup.countTransactions(null, null);
+            if (includeDonations) {
+                analysis = analysisService.withDonations(analysis, transactionStore.findByDateRange(from, to));
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("analysis", analysis);
+            response.put("startDate", from);
+            response.put("endDate", to);
+            response.put("transactionsProcessed", transactionsProcessed);
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Failed to create report: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/donations/report/monthly")
+    public ResponseEntity<?> getMonthlyReport(
+            @RequestParam(required = false) String startMonth,
+            @RequestParam(required = false) String endMonth) {
+        if (!transactionStore.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(createErrorResponse("Transaction history is disabled"));
+        }
+
+        YearMonth from;
+        YearMonth to;
+        try {
+            from = startMonth != null ? YearMonth.parse(startMonth) : null;
+            to = endMonth != null ? YearMonth.parse(endMonth) : null;
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse("Invalid month: " + e.getParsedString()));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("donors", transactionStore.findMonthlyDonations(from, to));
+        response.put("startMonth", from);
+        response.put("endMonth", to);
+        return ResponseEntity.ok(response);
     }
 
     @GetMapping("/formats")
@@ -131,15 +379,6 @@ public class DonationController {
         }
     }
 
-    private String determineFileType(String xmlContent) {
-        if (xmlContent.contains("camt.053.001.08")) {
-            return "CAMT.053";
-        } else if (xmlContent.contains("camt.054.001.08")) {
-            return "CAMT.054";
-        }
-        return "Unknown";
-    }
-
     private Map<String, Object> createFileInfo(MultipartFile file, String fileType) {
         Map<String, Object> fileInfo = new HashMap<>();
         fileInfo.put("fileName", file.getOriginalFilename());
@@ -148,6 +387,51 @@ public class DonationController {
         return fileInfo;
     }
 
+    private ResponseEntity<?> checkCompleted(AnalysisJob job) {
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(createErrorResponse("Unknown or expired job"));
+        }
+        if (job.getStatus() == JobStatus.FAILED) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Failed to process files: " + job.getError()));
+        }
+        if (job.getStatus() != JobStatus.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(createErrorResponse("Job is still " + job.getStatus()));
+        }
+        return null;
+    }
+
+    private Map<String, Object> createAnalysisSummary(DonationAnalysis analysis) {
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("totalDonations", analysis.getTotalDonations());
+        summary.put("donorCount", analysis.getDonors().size());
+        summary.put("donorsBelowMinimum", analysis.getDonorsBelowMinimum());
+        summary.put("analyzedAt", analysis.getAnalyzedAt());
+        return summary;
+    }
+
+    private List<Map<String, Object>> createFileInfos(List<FileProcessingResult> results) {
+        List<Map<String, Object>> processedFiles = new ArrayList<>();
+        for (FileProcessingResult result : results) {
+            processedFiles.add(createFileInfo(result));
+        }
+        return processedFiles;
+    }
+
+    private Map<String, Object> createFileInfo(FileProcessingResult result) {
+        Map<String, Object> fileInfo = new HashMap<>();
+        fileInfo.put("fileName", result.getFileName());
+        fileInfo.put("fileSize", result.getFileSize());
+        fileInfo.put("fileType", result.getFileType());
+        if (result.isSuccessful()) {
+            fileInfo.put("transactionsFound", result.getTransactionCount());
+            fileInfo.put("duplicatesDropped", result.getDuplicateCount());
+        } else {
+            fileInfo.put("error", result.getError());
+        }
+        return fileInfo;
+    }
+
     private Map<String, String> createErrorResponse(String message) {
         Map<String, String> error = new HashMap<>();
         error.put("error", message);
@@ -0,0 +1,232 @@
+package ch.asipiit.bankparser;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Donation sums and counts per donor and calendar month, updated as transactions are added.
+ * Month windows are answered from these rows in O(donors &times; months) without reading any
+ * transactions again. Not thread-safe; the owner serializes access.
+ */
+public class DonationRollup {
+    private final Map<String, MonthRow> donors = new LinkedHashMap<>();
+    private final MonthRow transactions = new MonthRow();
+
+    public void addAll(TransactionBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            add(batch.getDonorName(batch.getDonorId(i)), batch.getEpochDay(i), batch.getAmountMinor(i), batch.isCredit(i));
+        }
+    }
+
+    public void add(String donor, int epochDay, long amountMinor, boolean credit) {
+        int month = monthIndex(LocalDate.ofEpochDay(epochDay));
+        transactions.add(month, 0, 1);
+        if (credit) {
+            donors.computeIfAbsent(donor, name -> new MonthRow()).add(month, amountMinor, 1);
+        }
+    }
+
+    /**
+     * Adds the sums and counts of {@code other}; donors new to this rollup are appended in
+     * {@code other}'s order.
+     */
+    public void merge(DonationRollup other) {
+        merge(other, null, null);
+    }
+
+    /**
+     * Like {@link #merge(DonationRollup)}, taking only the months between {@code from} and
+     * {@code to}, both inclusive and both optional.
+     */
+    public void merge(DonationRollup other, YearMonth from, YearMonth to) {
+        int first = from != null ? monthIndex(from) : Integer.MIN_VALUE;
+        int last = to != null ? monthIndex(to) : Integer.MAX_VALUE;
+        transactions.merge(other.transactions, first, last);
+        for (Map.Entry<String, MonthRow> donor : other.donors.entrySet()) {
+            MonthRow row = donor.getValue();
+            if (row.count(first, last) > 0) {
+                donors.computeIfAbsent(donor.getKey(), name -> new MonthRow()).merge(row, first, last);
+            }
+        }
+    }
+
+    /**
+     * Writes the rollup in the form read by {@link #read(ByteBuffer, int)}:
+     * <pre>
+     * transaction row | int donors | per donor: u16 n | n bytes name | row
+     * row: int firstMonth | int length | length &times; (long amount, int count)
+     * </pre>
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        transactions.writeTo(out);
+        out.writeInt(donors.size());
+        for (Map.Entry<String, MonthRow> donor : donors.entrySet()) {
+            TransactionCodec.writeString(out, donor.getKey());
+            donor.getValue().writeTo(out);
+        }
+    }
+
+    static DonationRollup read(ByteBuffer buffer, int offset) {
+        DonationRollup rollup = new DonationRollup();
+        int position = rollup.transactions.readFrom(buffer, offset);
+        int donorCount = buffer.getInt(position);
+        position += 4;
+        for (int i = 0; i < donorCount; i++) {
+            String name = TransactionCodec.readString(buffer, position);
+            position += 2 + Short.toUnsignedInt(buffer.getShort(position));
+            MonthRow row = new MonthRow();
+            position = row.readFrom(buffer, position);
+            rollup.donors.put(name, row);
+        }
+        return rollup;
+    }
+
+    /**
+     * Donors with at least one donation between {@code from} and {@code to}, both inclusive and
+     * both optional, in the order they were first added.
+     */
+    public List<DonorMonths> findDonors(YearMonth from, YearMonth to) {
+        int first = from != null ? monthIndex(from) : Integer.MIN_VALUE;
+        int last = to != null ? monthIndex(to) : Integer.MAX_VALUE;
+        List<DonorMonths> result = new ArrayList<>();
+        for (Map.Entry<String, MonthRow> donor : donors.entrySet()) {
+            DonorMonths months = donor.getValue().window(donor.getKey(), first, last);
+            if (months != null) {
+                result.add(months);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * All transactions, donations or not, booked between {@code from} and {@code to}.
+     */
+    public long countTransactions(YearMonth from, YearMonth to) {
+        return transactions.count(from != null ? monthIndex(from) : Integer.MIN_VALUE,
+                to != null ? monthIndex(to) : Integer.MAX_VALUE);
+    }
+
+    private static int monthIndex(LocalDate date) {
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    private static int monthIndex(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    private static YearMonth toYearMonth(int monthIndex) {
+        return YearMonth.of(Math.floorDiv(monthIndex, 12), Math.floorMod(monthIndex, 12) + 1);
+    }
+
+    /**
+     * Dense per-month slots from the earliest to the latest month seen, growing at either end.
+     */
+    private static final class MonthRow {
+        private int firstMonth;
+        private int length;
+        private long[] amounts = new long[4];
+        private int[] counts = new int[4];
+
+        void add(int month, long amountMinor, int count) {
+            if (length == 0) {
+                firstMonth = month;
+                length = 1;
+            } else if (month < firstMonth) {
+                prepend(firstMonth - month);
+            } else if (month - firstMonth >= length) {
+                length = month - firstMonth + 1;
+                ensureCapacity(length);
+            }
+            int slot = month - firstMonth;
+            amounts[slot] += amountMinor;
+            counts[slot] += count;
+        }
+
+        void merge(MonthRow other, int first, int last) {
+            for (int i = 0; i < other.length; i++) {
+                int month = other.firstMonth + i;
+                if (other.counts[i] != 0 && month >= first && month <= last) {
+                    add(month, other.amounts[i], other.counts[i]);
+                }
+            }
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(firstMonth);
+            out.writeInt(length);
+            for (int i = 0; i < length; i++) {
+                out.writeLong(amounts[i]);
+                out.writeInt(counts[i]);
+            }
+        }
+
+        /**
+         * Reads a row written by {@link #writeTo} and returns the position after it.
+         */
+        int readFrom(ByteBuffer buffer, int offset) {
+            firstMonth = buffer.getInt(offset);
+            length = buffer.getInt(offset + 4);
+            amounts = new long[Math.max(length, 4)];
+            counts = new int[Math.max(length, 4)];
+            int position = offset + 8;
+            for (int i = 0; i < length; i++) {
+                amounts[i] = buffer.getLong(position);
+                counts[i] = buffer.getInt(position + 8);
+                position += 12;
+            }
+            return position;
+        }
+
+        DonorMonths window(String name, int first, int last) {
+            int start = Math.max(first, firstMonth) - firstMonth;
+            int end = (int) Math.min((long) last, (long) firstMonth + length - 1) - firstMonth;
+            while (start <= end && counts[start] == 0) {
+                start++;
+            }
+            while (end >= start && counts[end] == 0) {
+                end--;
+            }
+            if (start > end) {
+                return null;
+            }
+            return new DonorMonths(name, toYearMonth(firstMonth + start),
+                    Arrays.copyOfRange(amounts, start, end + 1), Arrays.copyOfRange(counts, start, end + 1));
+        }
+
+        long count(int first, int last) {
+            int start = Math.max(first, firstMonth) - firstMonth;
+            int end = (int) Math.min((long) last, (long) firstMonth + length - 1) - firstMonth;
+            long total = 0;
+            for (int i = start; i <= end; i++) {
+                total += counts[i];
+            }
+            return total;
+        }
+
+        private void prepend(int months) {
+            ensureCapacity(length + months);
+            System.arraycopy(amounts, 0, amounts, months, length);
+            System.arraycopy(counts, 0, counts, months, length);
+            Arrays.fill(amounts, 0, months, 0);
+            Arrays.fill(counts, 0, months, 0);
+            firstMonth -= months;
+            length += months;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > counts.length) {
+                int newCapacity = Math.max(capacity, counts.length * 2);
+                amounts = Arrays.copyOf(amounts, newCapacity);
+                counts = Arrays.copyOf(counts, newCapacity);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package ch.asipiit.bankparser;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class DonationTotals {
+    private final BigDecimal totalDonations;
+    private final int donorCount;
+    private final int donorsBelowMinimum;
+    private final LocalDateTime analyzedAt;
+
+    public DonationTotals(BigDecimal totalDonations, int donorCount, int donorsBelowMinimum, LocalDateTime analyzedAt) {
+        this.totalDonations = totalDonations;
+        this.donorCount = donorCount;
+        this.donorsBelowMinimum = donorsBelowMinimum;
+        this.analyzedAt = analyzedAt;
+    }
+
+    public BigDecimal getTotalDonations() {
+        return totalDonations;
+    }
+
+    public int getDonorCount() {
+        return donorCount;
+    }
+
+    public int getDonorsBelowMinimum() {
+        return donorsBelowMinimum;
+    }
+
+    public LocalDateTime getAnalyzedAt() {
+        return analyzedAt;
+    }
+}
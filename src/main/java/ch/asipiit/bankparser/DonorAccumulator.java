@@ -0,0 +1,125 @@
+package ch.asipiit.bankparser;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Running totals for one donor, filled in a single pass over the transactions.
+ * Accumulators for the same donor can be merged, so partial results built per
+ * file or per chunk combine into the same summary as one pass over everything.
+ */
+public class DonorAccumulator {
+    private final String name;
+    private final boolean retainDonations;
+    private final List<Transaction> donations;
+    private int count;
+    private BigDecimal total = BigDecimal.ZERO;
+    private long totalMinor;
+    private LocalDate firstDonation;
+    private LocalDate lastDonation;
+
+    public DonorAccumulator(String name) {
+        this(name, true);
+    }
+
+    public DonorAccumulator(String name, boolean retainDonations) {
+        this.name = name;
+        this.retainDonations = retainDonations;
+        this.donations = retainDonations ? new ArrayList<>() : null;
+    }
+
+    public void add(Transaction donation) {
+        if (retainDonations) {
+            donations.add(donation);
+        }
+        count++;
+        total = total.add(donation.getAmount());
+        includeDates(donation.getDate(), donation.getDate());
+    }
+
+    /**
+     * Adds a donation given as epoch day and amount in minor units, without retaining it.
+     */
+    public void add(int epochDay, long amountMinor) {
+        count++;
+        totalMinor += amountMinor;
+        if (firstDonation == null || epochDay < firstDonation.toEpochDay()) {
+            firstDonation = LocalDate.ofEpochDay(epochDay);
+        }
+        if (lastDonation == null || epochDay > lastDonation.toEpochDay()) {
+            lastDonation = LocalDate.ofEpochDay(epochDay);
+        }
+    }
+
+    public DonorAccumulator merge(DonorAccumulator other) {
+        if (retainDonations && other.donations != null) {
+            donations.addAll(other.donations);
+        }
+        count += other.count;
+        total = total.add(other.total);
+        totalMinor += other.totalMinor;
+        if (other.count > 0) {
+            includeDates(other.firstDonation, other.lastDonation);
+        }
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BigDecimal getTotal() {
+        return totalMinor == 0 ? total : total.add(TransactionBatch.fromMinorUnits(totalMinor));
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public LocalDate getFirstDonation() {
+        return firstDonation;
+    }
+
+    public LocalDate getLastDonation() {
+        return lastDonation;
+    }
+
+    public BigDecimal getMonthlyAverage() {
+        if (count == 0) return BigDecimal.ZERO;
+
+        long months = monthIndex(lastDonation) - monthIndex(firstDonation) + 1;
+        return getTotal().divide(BigDecimal.valueOf(months), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * The summary carries {@code null} donations when they were not retained, like summaries
+     * built from monthly rollups.
+     */
+    public DonorSummary toSummary(BigDecimal minimumMonthlyDonation) {
+        BigDecimal monthlyAverage = getMonthlyAverage();
+        return new DonorSummary(
+                name,
+                getTotal(),
+                monthlyAverage,
+                monthlyAverage.compareTo(minimumMonthlyDonation) < 0,
+                count,
+                donations
+        );
+    }
+
+    private void includeDates(LocalDate first, LocalDate last) {
+        if (firstDonation == null || first.isBefore(firstDonation)) {
+            firstDonation = first;
+        }
+        if (lastDonation == null || last.isAfter(lastDonation)) {
+            lastDonation = last;
+        }
+    }
+
+    private static long monthIndex(LocalDate date) {
+        return date.getYear() * 12L + date.getMonthValue();
+    }
+}
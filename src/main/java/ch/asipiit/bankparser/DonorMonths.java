@@ -0,0 +1,94 @@
+package ch.asipiit.bankparser;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One donor's donations per calendar month, from the first to the last month with a donation
+ * in the requested window. Months in between without donations are included with zero totals.
+ */
+public class DonorMonths {
+    private final String name;
+    private final YearMonth firstMonth;
+    private final long[] amountsMinor;
+    private final int[] counts;
+    private final long totalMinor;
+    private final int count;
+
+    DonorMonths(String name, YearMonth firstMonth, long[] amountsMinor, int[] counts) {
+        this.name = name;
+        this.firstMonth = firstMonth;
+        this.amountsMinor = amountsMinor;
+        this.counts = counts;
+        long total = 0;
+        int donations = 0;
+        for (int i = 0; i < counts.length; i++) {
+            total += amountsMinor[i];
+            donations += counts[i];
+        }
+        this.totalMinor = total;
+        this.count = donations;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public YearMonth getFirstMonth() {
+        return firstMonth;
+    }
+
+    public YearMonth getLastMonth() {
+        return firstMonth.plusMonths(counts.length - 1);
+    }
+
+    public BigDecimal getTotal() {
+        return TransactionBatch.fromMinorUnits(totalMinor);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public List<MonthTotal> getMonths() {
+        List<MonthTotal> months = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            months.add(new MonthTotal(firstMonth.plusMonths(i), TransactionBatch.fromMinorUnits(amountsMinor[i]), counts[i]));
+        }
+        return months;
+    }
+
+    long getTotalMinor() {
+        return totalMinor;
+    }
+
+    int getMonthSpan() {
+        return counts.length;
+    }
+
+    public static final class MonthTotal {
+        private final YearMonth month;
+        private final BigDecimal total;
+        private final int count;
+
+        MonthTotal(YearMonth month, BigDecimal total, int count) {
+            this.month = month;
+            this.total = total;
+            this.count = count;
+        }
+
+        public YearMonth getMonth() {
+            return month;
+        }
+
+        public BigDecimal getTotal() {
+            return total;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ch.asipiit.bankparser;
+
+import java.util.List;
+
+public class DonorPage {
+    private final List<DonorSummary> donors;
+    private final int page;
+    private final int size;
+    private final int totalDonors;
+
+    public DonorPage(List<DonorSummary> donors, int page, int size, int totalDonors) {
+        this.donors = donors;
+        this.page = page;
+        this.size = size;
+        this.totalDonors = totalDonors;
+    }
+
+    public List<DonorSummary> getDonors() {
+        return donors;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getTotalDonors() {
+        return totalDonors;
+    }
+
+    public int getTotalPages() {
+        return (totalDonors + size - 1) / size;
+    }
+}
@@ -0,0 +1,91 @@
+package ch.asipiit.bankparser;
+
+import java.math.BigDecimal;
+
+/**
+ * Paging, sorting and filter parameters for a donor listing, bound from request parameters.
+ * Unset filters match every donor.
+ */
+public class DonorQuery {
+    private int page = 0;
+    private int size = 20;
+    private String sort = "total";
+    private String direction = "desc";
+    private Boolean belowMinimum;
+    private String namePrefix;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private boolean includeDonations;
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+
+    public String getDirection() {
+        return direction;
+    }
+
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+
+    public Boolean getBelowMinimum() {
+        return belowMinimum;
+    }
+
+    public void setBelowMinimum(Boolean belowMinimum) {
+        this.belowMinimum = belowMinimum;
+    }
+
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    public void setNamePrefix(String namePrefix) {
+        this.namePrefix = namePrefix;
+    }
+
+    public BigDecimal getMinAmount() {
+        return minAmount;
+    }
+
+    public void setMinAmount(BigDecimal minAmount) {
+        this.minAmount = minAmount;
+    }
+
+    public BigDecimal getMaxAmount() {
+        return maxAmount;
+    }
+
+    public void setMaxAmount(BigDecimal maxAmount) {
+        this.maxAmount = maxAmount;
+    }
+
+    public boolean isIncludeDonations() {
+        return includeDonations;
+    }
+
+    public void setIncludeDonations(boolean includeDonations) {
+        this.includeDonations = includeDonations;
+    }
+}
@@ -0,0 +1,100 @@
+package ch.asipiit.bankparser;
+
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * Answers paged donor listings from an analysis kept on the server, so a response only
+ * carries one page of donors and, unless asked for, none of their transactions.
+ */
+@Service
+public class DonorQueryService {
+    static final int MAX_PAGE_SIZE = 200;
+
+    private static final Comparator<DonorSummary> BY_TOTAL = Comparator.comparing(DonorSummary::getTotalAmount);
+    private static final Comparator<DonorSummary> BY_MONTHLY_AVERAGE = Comparator.comparing(DonorSummary::getMonthlyAverage);
+    private static final Comparator<DonorSummary> BY_NAME = Comparator.comparing(DonorSummary::getName, String.CASE_INSENSITIVE_ORDER);
+
+    public DonorPage query(List<DonorSummary> donors, DonorQuery query) {
+        if (query.getPage() < 0) {
+            throw new IllegalArgumentException("page must not be negative");
+        }
+        if (query.getSize() < 1 || query.getSize() > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Comparator<DonorSummary> order = comparator(query.getSort(), query.getDirection());
+        String prefix = query.getNamePrefix() != null && !query.getNamePrefix().isBlank()
+                ? query.getNamePrefix().toLowerCase(Locale.ROOT)
+                : null;
+
+        // Only the donors up to the end of the requested page have to be ordered: keep them in a
+        // bounded heap whose head is the "worst" donor still on or before the page
+        long pageEnd = (long) (query.getPage() + 1) * query.getSize();
+        PriorityQueue<DonorSummary> head = new PriorityQueue<>(order.reversed());
+        int matching = 0;
+        for (DonorSummary donor : donors) {
+            if (!matches(donor, query, prefix)) {
+                continue;
+            }
+            matching++;
+            if (head.size() < pageEnd) {
+                head.add(donor);
+            } else if (order.compare(donor, head.peek()) < 0) {
+                head.poll();
+                head.add(donor);
+            }
+        }
+
+        List<DonorSummary> sorted = new ArrayList<>(head);
+        sorted.sort(order);
+        int from = (int) Math.min(pageEnd - query.getSize(), sorted.size());
+        List<DonorSummary> page = new ArrayList<>(sorted.size() - from);
+        for (DonorSummary donor : sorted.subList(from, sorted.size())) {
+            page.add(query.isIncludeDonations() ? donor : donor.withoutDonations());
+        }
+        return new DonorPage(page, query.getPage(), query.getSize(), matching);
+    }
+
+    public DonorSummary findDonor(List<DonorSummary> donors, String name) {
+        for (DonorSummary donor : donors) {
+            if (donor.getName().equals(name)) {
+                return donor;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(DonorSummary donor, DonorQuery query, String prefix) {
+        if (query.getBelowMinimum() != null && donor.isBelowMinimum() != query.getBelowMinimum()) {
+            return false;
+        }
+        if (prefix != null && !donor.getName().toLowerCase(Locale.ROOT).startsWith(prefix)) {
+            return false;
+        }
+        if (query.getMinAmount() != null && donor.getTotalAmount().compareTo(query.getMinAmount()) < 0) {
+            return false;
+        }
+        return query.getMaxAmount() == null || donor.getTotalAmount().compareTo(query.getMaxAmount()) <= 0;
+    }
+
+    private static Comparator<DonorSummary> comparator(String sort, String direction) {
+        Comparator<DonorSummary> order = switch (sort == null ? "total" : sort) {
+            case "total" -> BY_TOTAL;
+            case "monthlyAverage" -> BY_MONTHLY_AVERAGE;
+            case "name" -> BY_NAME;
+            default -> throw new IllegalArgumentException("Unknown sort field: " + sort);
+        };
+        if (direction == null || "asc".equalsIgnoreCase(direction)) {
+            return order.thenComparing(BY_NAME);
+        }
+        if ("desc".equalsIgnoreCase(direction)) {
+            return order.reversed().thenComparing(BY_NAME);
+        }
+        throw new IllegalArgumentException("Unknown sort direction: " + direction);
+    }
+}
@@ -1,13 +1,20 @@
 package ch.asipiit.bankparser;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.math.BigDecimal;
 import java.util.List;
 
+/**
+ * One donor's totals. {@code donations} is {@code null} when the summary was built without the
+ * individual donations, e.g. from monthly rollups; it is then left out of the JSON.
+ */
 public class DonorSummary {
     private final String name;
     private final BigDecimal totalAmount;
     private final BigDecimal monthlyAverage;
     private final boolean belowMinimum;
+    private final int donationCount;
     private final List<Transaction> donations;
 
     public DonorSummary(
@@ -16,14 +23,34 @@ public class DonorSummary {
             BigDecimal monthlyAverage,
             boolean belowMinimum,
             List<Transaction> donations
+    ) {
+        this(name, totalAmount, monthlyAverage, belowMinimum, donations.size(), donations);
+    }
+
+    public DonorSummary(
+            String name,
+            BigDecimal totalAmount,
+            BigDecimal monthlyAverage,
+            boolean belowMinimum,
+            int donationCount,
+            List<Transaction> donations
     ) {
         this.name = name;
         this.totalAmount = totalAmount;
         this.monthlyAverage = monthlyAverage;
         this.belowMinimum = belowMinimum;
+        this.donationCount = donationCount;
         this.donations = donations;
     }
 
+    public DonorSummary withoutDonations() {
+        return withDonations(null);
+    }
+
+    public DonorSummary withDonations(List<Transaction> donations) {
+        return new DonorSummary(name, totalAmount, monthlyAverage, belowMinimum, donationCount, donations);
+    }
+
     public String getName() {
         return name;
     }
@@ -40,7 +67,12 @@ public class DonorSummary {
         return belowMinimum;
     }
 
+    public int getDonationCount() {
+        return donationCount;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public List<Transaction> getDonations() {
         return donations;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,99 @@
+package ch.asipiit.bankparser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drops entries already seen in an earlier statement of the same analysis, e.g. when a
+ * CAMT.053 statement and CAMT.054 notifications cover the same bookings or monthly files
+ * overlap. The first statement passed in keeps a shared entry. Not thread-safe.
+ */
+public class DuplicateFilter {
+    private final LongHashSet seen = new LongHashSet(1024);
+
+    public Result filter(List<Transaction> transactions) {
+        return filter(transactions, EntryKeys.keys(transactions));
+    }
+
+    /**
+     * @param keys the entry keys of {@code transactions}, as computed by {@link EntryKeys#keys}
+     */
+    public Result filter(List<Transaction> transactions, long[] keys) {
+        boolean[] duplicate = markDuplicates(keys);
+        if (duplicate == null) {
+            return new Result(transactions, 0);
+        }
+
+        List<Transaction> unique = new ArrayList<>(transactions.size());
+        for (int i = 0; i < keys.length; i++) {
+            if (!duplicate[i]) {
+                unique.add(transactions.get(i));
+            }
+        }
+        return new Result(unique, keys.length - unique.size());
+    }
+
+    /**
+     * @param keys the entry keys of the rows of {@code batch}, as computed by {@link EntryKeys#keys(TransactionBatch)}
+     */
+    public BatchResult filter(TransactionBatch batch, long[] keys) {
+        boolean[] duplicate = markDuplicates(keys);
+        if (duplicate == null) {
+            return new BatchResult(batch, 0);
+        }
+        TransactionBatch unique = batch.without(duplicate);
+        return new BatchResult(unique, keys.length - unique.size());
+    }
+
+    /**
+     * Records {@code keys} as seen and flags those seen before; {@code null} if there are none.
+     */
+    private boolean[] markDuplicates(long[] keys) {
+        boolean[] duplicate = null;
+        for (int i = 0; i < keys.length; i++) {
+            if (!seen.add(keys[i])) {
+                if (duplicate == null) {
+                    duplicate = new boolean[keys.length];
+                }
+                duplicate[i] = true;
+            }
+        }
+        return duplicate;
+    }
+
+    public static final class Result {
+        private final List<Transaction> transactions;
+        private final int duplicateCount;
+
+        private Result(List<Transaction> transactions, int duplicateCount) {
+            this.transactions = transactions;
+            this.duplicateCount = duplicateCount;
+        }
+
+        public List<Transaction> getTransactions() {
+            return transactions;
+        }
+
+        public int getDuplicateCount() {
+            return duplicateCount;
+        }
+    }
+
+    public static final class BatchResult {
+        private final TransactionBatch batch;
+        private final int duplicateCount;
+
+        private BatchResult(TransactionBatch batch, int duplicateCount) {
+            this.batch = batch;
+            this.duplicateCount = duplicateCount;
+        }
+
+        public TransactionBatch getBatch() {
+            return batch;
+        }
+
+        public int getDuplicateCount() {
+            return duplicateCount;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package ch.asipiit.bankparser;
+
+import java.util.List;
+
+/**
+ * 64-bit keys identifying a booking across statements. Entries that carry a bank reference
+ * (account servicer reference, else end-to-end id) are keyed by it together with date and
+ * amount; others by all of their fields. Identical entries within one statement are told apart
+ * by their occurrence, so only repeats of a booking from another statement collide.
+ */
+public final class EntryKeys {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final String NOT_PROVIDED = "NOTPROVIDED";
+
+    private EntryKeys() {
+    }
+
+    /**
+     * Picks the most stable identifier a statement offers for an entry, or {@code null}.
+     */
+    public static String entryReference(String accountServicerReference, String transactionAccountServicerReference,
+                                        String endToEndId) {
+        if (!isBlank(accountServicerReference)) {
+            return accountServicerReference.trim();
+        }
+        if (!isBlank(transactionAccountServicerReference)) {
+            return transactionAccountServicerReference.trim();
+        }
+        if (!isBlank(endToEndId) && !NOT_PROVIDED.equals(endToEndId.trim())) {
+            return endToEndId.trim();
+        }
+        return null;
+    }
+
+    public static long key(Transaction transaction) {
+        return key(transaction.getDate().toEpochDay(), TransactionBatch.toMinorUnits(transaction.getAmount()),
+                transaction.getType(), transaction.getEntryReference(), transaction.getDebtorName(),
+                transaction.getReference());
+    }
+
+    /**
+     * The key of an entry given field by field, for parsers that do not build a {@link Transaction}.
+     */
+    public static long key(long epochDay, long amountMinor, TransactionType type, String entryReference,
+                           String debtorName, String reference) {
+        long hash = FNV_OFFSET;
+        hash = hash(hash, epochDay);
+        hash = hash(hash, amountMinor);
+        hash = hash(hash, type.ordinal());
+        if (entryReference != null) {
+            return hash(hash(hash, 'R'), entryReference);
+        }
+        hash = hash(hash(hash, 'C'), debtorName);
+        return hash(hash, reference);
+    }
+
+    /**
+     * Keys for the entries of one statement, the n-th identical entry getting its own key.
+     */
+    public static long[] keys(List<Transaction> transactions) {
+        long[] keys = new long[transactions.size()];
+        LongHashSet statementKeys = new LongHashSet(transactions.size());
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = addOccurrence(statementKeys, key(transactions.get(i)));
+        }
+        return keys;
+    }
+
+    /**
+     * Like {@link #keys(List)} for a batch, whose rows carry the key of their entry.
+     */
+    public static long[] keys(TransactionBatch batch) {
+        long[] keys = new long[batch.size()];
+        LongHashSet statementKeys = new LongHashSet(batch.size());
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = addOccurrence(statementKeys, batch.getKey(i));
+        }
+        return keys;
+    }
+
+    /**
+     * Adds the first occurrence of {@code key} not yet in {@code set} and returns it.
+     */
+    private static long addOccurrence(LongHashSet set, long key) {
+        long occurrence = key;
+        for (int n = 2; !set.add(occurrence); n++) {
+            occurrence = mix(key + n * 0x9E3779B97F4A7C15L);
+        }
+        return occurrence;
+    }
+
+    private static long hash(long hash, String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+            }
+        }
+        return (hash ^ 0xFFFF) * FNV_PRIME;
+    }
+
+    private static long hash(long hash, long value) {
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            hash = (hash ^ ((value >>> shift) & 0xFF)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,75 @@
+package ch.asipiit.bankparser;
+
+public class FileProcessingResult {
+    private final String fileName;
+    private final long fileSize;
+    private final String fileType;
+    private final int transactionCount;
+    private final int duplicateCount;
+    private final String error;
+
+    public FileProcessingResult(String fileName, long fileSize, String fileType, int transactionCount, String error) {
+        this(fileName, fileSize, fileType, transactionCount, 0, error);
+    }
+
+    public FileProcessingResult(
+            String fileName,
+            long fileSize,
+            String fileType,
+            int transactionCount,
+            int duplicateCount,
+            String error
+    ) {
+        this.fileName = fileName;
+        this.fileSize = fileSize;
+        this.fileType = fileType;
+        this.transactionCount = transactionCount;
+        this.duplicateCount = duplicateCount;
+        this.error = error;
+    }
+
+    public static FileProcessingResult success(StatementSource source, String fileType, int transactionCount) {
+        return success(source, fileType, transactionCount, 0);
+    }
+
+    public static FileProcessingResult success(
+            StatementSource source, String fileType, int transactionCount, int duplicateCount) {
+        return new FileProcessingResult(source.getName(), source.getSize(), fileType, transactionCount, duplicateCount,
+                null);
+    }
+
+    public static FileProcessingResult failure(StatementSource source, String fileType, String error) {
+        return new FileProcessingResult(source.getName(), source.getSize(), fileType, 0, error);
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public String getFileType() {
+        return fileType;
+    }
+
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    /**
+     * Entries of this file left out because another file of the same analysis already had them.
+     */
+    public int getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
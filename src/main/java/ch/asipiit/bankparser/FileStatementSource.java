@@ -0,0 +1,37 @@
+package ch.asipiit.bankparser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class FileStatementSource implements StatementSource {
+    private final String name;
+    private final Path file;
+    private final long size;
+
+    public FileStatementSource(String name, Path file) throws IOException {
+        this.name = name;
+        this.file = file;
+        this.size = Files.size(file);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public InputStream openStream() throws IOException {
+        return Files.newInputStream(file);
+    }
+}
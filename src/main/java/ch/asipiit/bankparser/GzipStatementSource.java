@@ -0,0 +1,44 @@
+package ch.asipiit.bankparser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A gzip-compressed statement, inflated on the fly whenever it is opened. The reported size
+ * is the compressed size of the upload.
+ */
+public class GzipStatementSource implements StatementSource {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final StatementSource compressed;
+    private final long maxUncompressedSize;
+
+    public GzipStatementSource(StatementSource compressed, long maxUncompressedSize) {
+        this.compressed = compressed;
+        this.maxUncompressedSize = maxUncompressedSize;
+    }
+
+    @Override
+    public String getName() {
+        String name = compressed.getName();
+        return name != null && name.toLowerCase(Locale.ROOT).endsWith(".gz") ? name.substring(0, name.length() - 3) : name;
+    }
+
+    @Override
+    public long getSize() {
+        return compressed.getSize();
+    }
+
+    @Override
+    public InputStream openStream() throws IOException {
+        InputStream in = compressed.openStream();
+        try {
+            return new SizeLimitedInputStream(new GZIPInputStream(in, BUFFER_SIZE), maxUncompressedSize, getName());
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package ch.asipiit.bankparser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A statement file that is memory-mapped when opened, so the parser reads straight from the
+ * page cache instead of copying through a stream buffer. Files too large for a single mapping
+ * are read as a plain stream.
+ */
+public class MappedFileStatementSource extends FileStatementSource {
+
+    public MappedFileStatementSource(String name, Path file) throws IOException {
+        super(name, file);
+    }
+
+    @Override
+    public InputStream openStream() throws IOException {
+        if (getSize() > Integer.MAX_VALUE) {
+            return super.openStream();
+        }
+        try (FileChannel channel = FileChannel.open(getFile(), StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return new ByteBufferInputStream(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
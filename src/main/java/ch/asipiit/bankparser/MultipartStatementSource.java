@@ -0,0 +1,40 @@
+package ch.asipiit.bankparser;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+public class MultipartStatementSource implements StatementSource {
+    private final MultipartFile file;
+
+    public MultipartStatementSource(MultipartFile file) {
+        this.file = file;
+    }
+
+    @Override
+    public String getName() {
+        return file.getOriginalFilename();
+    }
+
+    @Override
+    public long getSize() {
+        return file.getSize();
+    }
+
+    @Override
+    public InputStream openStream() throws IOException {
+        return file.getInputStream();
+    }
+
+    /**
+     * Moves the upload to {@code target}; the multipart content cannot be read afterwards. Goes
+     * through {@link MultipartFile#transferTo(java.io.File)}, which hands the target to the servlet
+     * part: a part spooled to disk is renamed when possible and only copied otherwise, e.g. when
+     * the spool is on another file system. {@code transferTo(Path)} would always copy.
+     */
+    public void transferTo(Path target) throws IOException {
+        file.transferTo(target.toFile());
+    }
+}
@@ -0,0 +1,234 @@
+package ch.asipiit.bankparser;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parse results keyed by the SHA-256 of the uploaded bytes, evicted least-recently-used once the
+ * memory budget is exceeded. Full statements are held in the compact {@link TransactionCodec}
+ * form; batches are held as the {@link TransactionBatch} itself and handed out shared, so callers
+ * must not modify them. An upload parsed both ways keeps both forms in one entry.
+ */
+@Component
+public class ParseCache implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(ParseCache.class);
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    private final boolean enabled;
+    private final long maxMemoryBytes;
+
+    private final LinkedHashMap<String, CachedStatement> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public ParseCache(
+            @Value("${bankparser.cache.enabled:true}") boolean enabled,
+            @Value("${bankparser.cache.max-memory:64MB}") DataSize maxMemory
+    ) {
+        this.enabled = enabled;
+        this.maxMemoryBytes = maxMemory.toBytes();
+    }
+
+    public static ParseCache disabled() {
+        return new ParseCache(false, DataSize.ofBytes(0));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reads {@code content} to the end and returns the key its parse result is cached under.
+     */
+    public String hash(InputStream content) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        content.transferTo(new DigestOutputStream(OutputStream.nullOutputStream(), digest));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public ParsedStatement get(String contentHash) {
+        CachedStatement cached = entry(contentHash);
+        if (cached == null || cached.records == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return cached.decode();
+    }
+
+    public ParsedBatch getBatch(String contentHash) {
+        CachedStatement cached = entry(contentHash);
+        if (cached == null || cached.batch == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return new ParsedBatch(cached.fileType, cached.batch);
+    }
+
+    public void put(String contentHash, ParsedStatement statement) {
+        CachedStatement cached;
+        try {
+            cached = CachedStatement.encode(statement);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Not caching parse result {}: {}", contentHash, e.getMessage());
+            return;
+        }
+        store(contentHash, cached);
+    }
+
+    public void putBatch(String contentHash, ParsedBatch batch) {
+        store(contentHash, new CachedStatement(batch.getFileType(), 0, null, batch.getBatch()));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled) {
+            return;
+        }
+        FunctionCounter.builder("bankparser.cache.requests", hits, AtomicLong::get)
+                .description("Parse cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("bankparser.cache.requests", misses, AtomicLong::get)
+                .description("Parse cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("bankparser.cache.evictions", evictions, AtomicLong::get)
+                .description("Entries evicted from the parse cache")
+                .register(registry);
+        Gauge.builder("bankparser.cache.memory", this, ParseCache::getMemoryBytes)
+                .description("Estimated size of the parse cache")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    private synchronized CachedStatement entry(String contentHash) {
+        return entries.get(contentHash);
+    }
+
+    private synchronized void store(String contentHash, CachedStatement cached) {
+        CachedStatement previous = entries.get(contentHash);
+        if (previous != null) {
+            cached = cached.combine(previous);
+        }
+        entries.put(contentHash, cached);
+        memoryBytes += cached.sizeInBytes() - (previous != null ? previous.sizeInBytes() : 0);
+
+        Iterator<Map.Entry<String, CachedStatement>> eldest = entries.entrySet().iterator();
+        while (memoryBytes > maxMemoryBytes && eldest.hasNext()) {
+            memoryBytes -= eldest.next().getValue().sizeInBytes();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * A parse result as encoded records, as a batch, or both; the form that was not cached is null.
+     */
+    private static final class CachedStatement {
+        private final String fileType;
+        private final int count;
+        private final byte[] records;
+        private final TransactionBatch batch;
+
+        private CachedStatement(String fileType, int count, byte[] records, TransactionBatch batch) {
+            this.fileType = fileType;
+            this.count = count;
+            this.records = records;
+            this.batch = batch;
+        }
+
+        static CachedStatement encode(ParsedStatement statement) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                for (Transaction transaction : statement.getTransactions()) {
+                    TransactionCodec.write(out, transaction);
+                }
+            }
+            return new CachedStatement(statement.getFileType(), statement.getTransactions().size(),
+                    bytes.toByteArray(), null);
+        }
+
+        /**
+         * This entry with the forms of {@code other} it lacks.
+         */
+        CachedStatement combine(CachedStatement other) {
+            return records != null
+                    ? new CachedStatement(fileType, count, records, batch != null ? batch : other.batch)
+                    : new CachedStatement(fileType, other.count, other.records, batch);
+        }
+
+        ParsedStatement decode() {
+            ByteBuffer buffer = ByteBuffer.wrap(records);
+            List<Transaction> transactions = new ArrayList<>(count);
+            int offset = 0;
+            for (int i = 0; i < count; i++) {
+                transactions.add(TransactionCodec.read(buffer, offset));
+                offset += TransactionCodec.recordLength(buffer, offset);
+            }
+            return new ParsedStatement(fileType, transactions, true);
+        }
+
+        long sizeInBytes() {
+            return (records != null ? records.length : 0)
+                    + (batch != null ? batch.estimateSizeInBytes() : 0)
+                    + ENTRY_OVERHEAD_BYTES;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ch.asipiit.bankparser;
+
+public class ParsedBatch {
+    private final String fileType;
+    private final TransactionBatch batch;
+
+    public ParsedBatch(String fileType, TransactionBatch batch) {
+        this.fileType = fileType;
+        this.batch = batch;
+    }
+
+    public String getFileType() {
+        return fileType;
+    }
+
+    public TransactionBatch getBatch() {
+        return batch;
+    }
+}
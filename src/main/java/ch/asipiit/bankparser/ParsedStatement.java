@@ -0,0 +1,27 @@
+package ch.asipiit.bankparser;
+
+import java.util.List;
+
+public class ParsedStatement {
+    private final String fileType;
+    private final List<Transaction> transactions;
+    private final boolean fromCache;
+
+    public ParsedStatement(String fileType, List<Transaction> transactions, boolean fromCache) {
+        this.fileType = fileType;
+        this.transactions = transactions;
+        this.fromCache = fromCache;
+    }
+
+    public String getFileType() {
+        return fileType;
+    }
+
+    public List<Transaction> getTransactions() {
+        return transactions;
+    }
+
+    public boolean isFromCache() {
+        return fromCache;
+    }
+}
@@ -0,0 +1,5 @@
+package ch.asipiit.bankparser;
+
+public enum ParserMode {
+    STREAMING, PROWIDE
+}
@@ -0,0 +1,150 @@
+package ch.asipiit.bankparser;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Parses synthetic statements with every supported processor before the application reports
+ * itself ready, so JAXB contexts, model classes and the StAX factories are loaded and the hot
+ * paths are compiled before the first upload. Runners complete before the readiness state
+ * changes to accepting traffic.
+ * <p>
+ * The warm-up runs on its own processors and services, bound to a throwaway meter registry, so
+ * the synthetic parses do not show up in the application's timers. They share their classes,
+ * and so the compiled code and Prowide's contexts, with the instances that serve uploads.
+ */
+@Component
+public class ParserWarmup implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(ParserWarmup.class);
+
+    private final Function<MeterRegistry, List<CamtProcessor<?>>> processorFactory;
+    private final boolean enabled;
+    private final int iterations;
+    private final int entries;
+    private volatile long durationNanos;
+
+    @Autowired
+    public ParserWarmup(
+            @Value("${bankparser.parser.mode:STREAMING}") ParserMode parserMode,
+            MeterRegistry meterRegistry,
+            @Value("${bankparser.warmup.enabled:true}") boolean enabled,
+            @Value("${bankparser.warmup.iterations:200}") int iterations,
+            @Value("${bankparser.warmup.entries:50}") int entries
+    ) {
+        this(scratch -> CamtProcessors.all(parserMode, scratch), meterRegistry, enabled, iterations, entries);
+    }
+
+    /**
+     * @param processorFactory creates the processors to warm up, bound to the given throwaway registry
+     */
+    ParserWarmup(Function<MeterRegistry, List<CamtProcessor<?>>> processorFactory, MeterRegistry meterRegistry,
+                 boolean enabled, int iterations, int entries) {
+        this.processorFactory = processorFactory;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.entries = entries;
+        TimeGauge.builder("bankparser.warmup.duration", this, TimeUnit.NANOSECONDS, warmup -> warmup.durationNanos)
+                .description("Time spent warming up the CAMT processors at startup")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        MeterRegistry scratch = new SimpleMeterRegistry();
+        List<CamtProcessor<?>> processors = processorFactory.apply(scratch);
+        CamtProcessingService processingService = new CamtProcessingService(processors, ParseCache.disabled(), scratch);
+        DonationAnalysisService analysisService = new DonationAnalysisService(scratch);
+        int warmed = 0;
+        for (CamtProcessor<?> processor : processors) {
+            String document = sampleDocument(processor.getNamespace(), entries);
+            if (document == null) {
+                log.warn("No warm-up document for {}, skipping", processor.getNamespace());
+                continue;
+            }
+            try {
+                warmUp(processor, processingService, analysisService, document.getBytes(StandardCharsets.UTF_8));
+                warmed++;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Warm-up of {} failed: {}", processor.getFormatVersion(), e.getMessage());
+            }
+        }
+        scratch.close();
+        durationNanos = System.nanoTime() - start;
+
+        log.info("Warmed up {} CAMT processor(s) with {} iteration(s) in {} ms",
+                warmed, iterations, TimeUnit.NANOSECONDS.toMillis(durationNanos));
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    private void warmUp(CamtProcessor<?> processor, CamtProcessingService processingService,
+                        DonationAnalysisService analysisService, byte[] document) throws IOException {
+        for (int i = 0; i < iterations; i++) {
+            try (InputStream in = new ByteArrayInputStream(document)) {
+                processingService.detectFormat(in);
+            }
+            List<Transaction> transactions = processor.processTransactions(new ByteArrayInputStream(document));
+            processor.processBatch(new ByteArrayInputStream(document));
+            analysisService.analyzeDonations(transactions);
+        }
+    }
+
+    static String sampleDocument(String namespace, int entries) {
+        String message;
+        String container;
+        if (namespace.contains("camt.052")) {
+            message = "BkToCstmrAcctRpt";
+            container = "Rpt";
+        } else if (namespace.contains("camt.053")) {
+            message = "BkToCstmrStmt";
+            container = "Stmt";
+        } else if (namespace.contains("camt.054")) {
+            message = "BkToCstmrDbtCdtNtfctn";
+            container = "Ntfctn";
+        } else {
+            return null;
+        }
+
+        String debtorStart = namespace.endsWith(".04") ? "<Dbtr><Nm>" : "<Dbtr><Pty><Nm>";
+        String debtorEnd = namespace.endsWith(".04") ? "</Nm></Dbtr>" : "</Nm></Pty></Dbtr>";
+
+        StringBuilder xml = new StringBuilder(256 + entries * 320);
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+                .append("<Document xmlns=\"").append(namespace).append("\">")
+                .append('<').append(message).append("><").append(container).append('>');
+        for (int i = 0; i < entries; i++) {
+            xml.append("<Ntry><Amt Ccy=\"CHF\">").append(10 + i % 90).append('.').append(i % 10).append("5</Amt>")
+                    .append("<CdtDbtInd>").append(i % 10 == 0 ? "DBIT" : "CRDT").append("</CdtDbtInd>")
+                    .append("<BookgDt><Dt>2024-").append(String.format("%02d", 1 + i % 12)).append("-15</Dt></BookgDt>")
+                    .append("<NtryDtls><TxDtls><RltdPties>").append(debtorStart)
+                    .append("Warm-up Donor ").append(i % 7).append(debtorEnd).append("</RltdPties>")
+                    .append("<RmtInf><Strd><CdtrRefInf><Ref>WARMUP").append(i)
+                    .append("</Ref></CdtrRefInf></Strd></RmtInf></TxDtls></NtryDtls></Ntry>");
+        }
+        xml.append("</").append(container).append("></").append(message).append("></Document>");
+        return xml.toString();
+    }
+}
@@ -0,0 +1,74 @@
+package ch.asipiit.bankparser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+
+/**
+ * Keeps a copy of the bytes read during format detection so they can be handed on together
+ * with the rest of the upload. Ends the stream after {@code limit} bytes, so a document whose
+ * root element does not appear early enough is reported as unsupported instead of being
+ * buffered in full.
+ */
+class PrologInputStream extends FilterInputStream {
+    private final ByteArrayOutputStream consumed = new ByteArrayOutputStream();
+    private final int limit;
+
+    PrologInputStream(InputStream in, int limit) {
+        super(in);
+        this.limit = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (consumed.size() >= limit) {
+            return -1;
+        }
+        int b = super.read();
+        if (b != -1) {
+            consumed.write(b);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int remaining = limit - consumed.size();
+        if (remaining <= 0) {
+            return length == 0 ? 0 : -1;
+        }
+        int read = super.read(buffer, offset, Math.min(length, remaining));
+        if (read > 0) {
+            consumed.write(buffer, offset, read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // everything read has to be replayed, so nothing may be skipped
+        return 0;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * Closing the XML reader must not close the upload.
+     */
+    @Override
+    public void close() {
+    }
+
+    /**
+     * The bytes read so far followed by the rest of the underlying stream.
+     */
+    InputStream replay() {
+        return new SequenceInputStream(new ByteArrayInputStream(consumed.toByteArray()), in);
+    }
+}
@@ -0,0 +1,112 @@
+package ch.asipiit.bankparser;
+
+import com.prowidesoftware.swift.model.mx.dic.CreditDebitCode;
+import com.prowidesoftware.swift.model.mx.dic.ReportEntry10;
+import com.prowidesoftware.swift.model.mx.dic.ReportEntry4;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Maps Prowide entries to {@link Transaction}s with plain null checks along each path. Only the
+ * first entry details, transaction details and structured remittance are looked at, matching
+ * {@link StreamingCamtParser}.
+ */
+public final class ReportEntryMapper {
+    private static final String UNKNOWN_DEBTOR = "Unknown";
+
+    private ReportEntryMapper() {
+    }
+
+    public static Transaction toTransaction(ReportEntry10 entry) {
+        EntryFields fields = new EntryFields(entry.getAcctSvcrRef(), entry.getCdtDbtInd(),
+                entry.getBookgDt() != null ? entry.getBookgDt().getDt() : null,
+                entry.getAmt() != null ? entry.getAmt().getValue() : null);
+        var details = first(entry.getNtryDtls());
+        var transaction = details != null ? first(details.getTxDtls()) : null;
+        if (transaction != null) {
+            var parties = transaction.getRltdPties();
+            if (parties != null && parties.getDbtr() != null && parties.getDbtr().getPty() != null) {
+                fields.debtorName = parties.getDbtr().getPty().getNm();
+            }
+            var remittance = transaction.getRmtInf();
+            var structured = remittance != null ? first(remittance.getStrd()) : null;
+            if (structured != null && structured.getCdtrRefInf() != null) {
+                fields.reference = structured.getCdtrRefInf().getRef();
+            }
+            var references = transaction.getRefs();
+            if (references != null) {
+                fields.transactionAccountServicerReference = references.getAcctSvcrRef();
+                fields.endToEndId = references.getEndToEndId();
+            }
+        }
+        return fields.toTransaction();
+    }
+
+    /**
+     * Version 04 entries name the debtor directly under {@code Dbtr} instead of {@code Dbtr/Pty}.
+     */
+    public static Transaction toTransaction(ReportEntry4 entry) {
+        EntryFields fields = new EntryFields(entry.getAcctSvcrRef(), entry.getCdtDbtInd(),
+                entry.getBookgDt() != null ? entry.getBookgDt().getDt() : null,
+                entry.getAmt() != null ? entry.getAmt().getValue() : null);
+        var details = first(entry.getNtryDtls());
+        var transaction = details != null ? first(details.getTxDtls()) : null;
+        if (transaction != null) {
+            var parties = transaction.getRltdPties();
+            if (parties != null && parties.getDbtr() != null) {
+                fields.debtorName = parties.getDbtr().getNm();
+            }
+            var remittance = transaction.getRmtInf();
+            var structured = remittance != null ? first(remittance.getStrd()) : null;
+            if (structured != null && structured.getCdtrRefInf() != null) {
+                fields.reference = structured.getCdtrRefInf().getRef();
+            }
+            var references = transaction.getRefs();
+            if (references != null) {
+                fields.transactionAccountServicerReference = references.getAcctSvcrRef();
+                fields.endToEndId = references.getEndToEndId();
+            }
+        }
+        return fields.toTransaction();
+    }
+
+    private static <E> E first(List<E> list) {
+        return list == null || list.isEmpty() ? null : list.get(0);
+    }
+
+    /**
+     * The values read from an entry of either version; applies the defaults for missing ones.
+     */
+    private static final class EntryFields {
+        private final String entryAccountServicerReference;
+        private final CreditDebitCode creditDebitIndicator;
+        private final LocalDate date;
+        private final BigDecimal amount;
+        private String debtorName;
+        private String reference;
+        private String transactionAccountServicerReference;
+        private String endToEndId;
+
+        EntryFields(String entryAccountServicerReference, CreditDebitCode creditDebitIndicator, LocalDate date,
+                    BigDecimal amount) {
+            this.entryAccountServicerReference = entryAccountServicerReference;
+            this.creditDebitIndicator = creditDebitIndicator;
+            this.date = date;
+            this.amount = amount;
+        }
+
+        Transaction toTransaction() {
+            return new Transaction(
+                    debtorName != null ? debtorName : UNKNOWN_DEBTOR,
+                    date != null ? date : LocalDate.now(),
+                    amount != null ? amount : BigDecimal.ZERO,
+                    reference != null ? reference : "",
+                    creditDebitIndicator == CreditDebitCode.CRDT ? TransactionType.CREDIT : TransactionType.DEBIT,
+                    EntryKeys.entryReference(entryAccountServicerReference, transactionAccountServicerReference,
+                            endToEndId)
+            );
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package ch.asipiit.bankparser;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Time spent per processing stage of one request, plus byte and entry counts. The instance is
+ * bound to the request thread, and to worker threads for the duration of their task; code
+ * without a bound instance (batch mode, background jobs, warm-up) records nothing. Stages that
+ * run for several files in parallel add up, so their sum may exceed the wall-clock total.
+ */
+public final class RequestTimings {
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> stageNanos = new LinkedHashMap<>();
+    private final Map<String, Long> counts = new LinkedHashMap<>();
+
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes {@code timings} (which may be null) the current instance until the scope is closed.
+     */
+    public static Scope bind(RequestTimings timings) {
+        RequestTimings previous = CURRENT.get();
+        CURRENT.set(timings);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    public static void record(String stage, long nanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.add(stage, nanos);
+        }
+    }
+
+    public static void count(String name, long value) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.addCount(name, value);
+        }
+    }
+
+    public synchronized void add(String stage, long nanos) {
+        stageNanos.merge(stage, nanos, Long::sum);
+    }
+
+    public synchronized void addCount(String name, long value) {
+        counts.merge(name, value, Long::sum);
+    }
+
+    public synchronized long getStageNanos(String stage) {
+        return stageNanos.getOrDefault(stage, 0L);
+    }
+
+    public synchronized long getCount(String name) {
+        return counts.getOrDefault(name, 0L);
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * The stages as a {@code Server-Timing} header value, durations in milliseconds and counts
+     * as descriptions, e.g. {@code detect;dur=0.4, parse;dur=81.2, entries;desc=1200, total;dur=95.0}.
+     */
+    public synchronized String toServerTiming() {
+        StringBuilder header = new StringBuilder();
+        for (Map.Entry<String, Long> stage : stageNanos.entrySet()) {
+            header.append(stage.getKey()).append(";dur=").append(millis(stage.getValue())).append(", ");
+        }
+        for (Map.Entry<String, Long> count : counts.entrySet()) {
+            header.append(count.getKey()).append(";desc=").append(count.getValue()).append(", ");
+        }
+        return header.append("total;dur=").append(millis(getElapsedNanos())).toString();
+    }
+
+    /**
+     * The stages as {@code key=value} pairs for a single log line.
+     */
+    public synchronized String toLogFields() {
+        StringBuilder fields = new StringBuilder("total_ms=").append(millis(getElapsedNanos()));
+        for (Map.Entry<String, Long> stage : stageNanos.entrySet()) {
+            fields.append(' ').append(stage.getKey()).append("_ms=").append(millis(stage.getValue()));
+        }
+        for (Map.Entry<String, Long> count : counts.entrySet()) {
+            fields.append(' ').append(count.getKey()).append('=').append(count.getValue());
+        }
+        return fields.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,40 @@
+package ch.asipiit.bankparser;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the stages timed so far as a {@code Server-Timing} header. Serialization starts right
+ * after, so it only appears in the request log line; so does work done while a response body
+ * is streamed.
+ */
+@ControllerAdvice
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+    static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            HttpServletRequest servlet = servletRequest.getServletRequest();
+            if (servlet.getAttribute(ServerTimingFilter.TIMINGS_ATTRIBUTE) instanceof RequestTimings timings) {
+                response.getHeaders().add(SERVER_TIMING_HEADER, timings.toServerTiming());
+                servlet.setAttribute(ServerTimingFilter.SERIALIZE_START_ATTRIBUTE, System.nanoTime());
+            }
+        }
+        return body;
+    }
+}
@@ -0,0 +1,107 @@
+package ch.asipiit.bankparser;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Collects {@link RequestTimings} for every API request and logs them as one line when the
+ * request completes, after any streamed response body. Reading the multipart body is timed
+ * here as {@code receive} by resolving the parts up front; {@link ServerTimingAdvice} adds the
+ * {@code Server-Timing} header just before a response body is serialized.
+ */
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+    static final String TIMINGS_ATTRIBUTE = ServerTimingFilter.class.getName() + ".timings";
+    static final String SERIALIZE_START_ATTRIBUTE = ServerTimingFilter.class.getName() + ".serializeStart";
+
+    private static final Logger log = LoggerFactory.getLogger(ServerTimingFilter.class);
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTimings timings = new RequestTimings();
+        request.setAttribute(TIMINGS_ATTRIBUTE, timings);
+        try (RequestTimings.Scope scope = RequestTimings.bind(timings)) {
+            receive(request, timings);
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new LoggingListener(request, response, timings));
+            } else {
+                log(request, response, timings);
+            }
+        }
+    }
+
+    private static void receive(HttpServletRequest request, RequestTimings timings) {
+        if (request.getContentLengthLong() > 0) {
+            timings.addCount("requestBytes", request.getContentLengthLong());
+        }
+        String contentType = request.getContentType();
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/")) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            request.getParts();
+        } catch (IOException | ServletException | IllegalStateException e) {
+            // the container keeps the failure; it is reported when the multipart resolver asks again
+        }
+        timings.add("receive", System.nanoTime() - start);
+    }
+
+    private static void log(HttpServletRequest request, HttpServletResponse response, RequestTimings timings) {
+        Object serializeStart = request.getAttribute(SERIALIZE_START_ATTRIBUTE);
+        if (serializeStart instanceof Long start) {
+            timings.add("serialize", System.nanoTime() - start);
+        }
+        log.info("method={} path={} status={} {}", request.getMethod(), request.getRequestURI(), response.getStatus(),
+                timings.toLogFields());
+    }
+
+    private static final class LoggingListener implements AsyncListener {
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final RequestTimings timings;
+
+        private LoggingListener(HttpServletRequest request, HttpServletResponse response, RequestTimings timings) {
+            this.request = request;
+            this.response = response;
+            this.timings = timings;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            log(request, response, timings);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
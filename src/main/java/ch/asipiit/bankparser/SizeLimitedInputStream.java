@@ -0,0 +1,58 @@
+package ch.asipiit.bankparser;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Fails once more than {@code limit} bytes have been read, so a small compressed upload
+ * cannot expand into an unbounded amount of XML.
+ */
+class SizeLimitedInputStream extends FilterInputStream {
+    private final long limit;
+    private final String name;
+    private long count;
+
+    SizeLimitedInputStream(InputStream in, long limit, String name) {
+        super(in);
+        this.limit = limit;
+        this.name = name;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            count(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void count(long read) throws IOException {
+        count += read;
+        if (count > limit) {
+            throw new IOException("Uncompressed content of " + name + " exceeds " + limit + " bytes");
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ch.asipiit.bankparser;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The statements found in a set of uploads once archives and compressed files are opened up,
+ * together with whatever has to be released afterwards (open archives, spooled copies).
+ */
+public class StatementBundle implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(StatementBundle.class);
+
+    private final List<StatementSource> sources = new ArrayList<>();
+    private final List<Closeable> resources = new ArrayList<>();
+    private final List<Path> temporaryFiles = new ArrayList<>();
+
+    void addSource(StatementSource source) {
+        sources.add(source);
+    }
+
+    void addResource(Closeable resource) {
+        resources.add(resource);
+    }
+
+    void addTemporaryFile(Path file) {
+        temporaryFiles.add(file);
+    }
+
+    public List<StatementSource> getSources() {
+        return sources;
+    }
+
+    @Override
+    public void close() {
+        for (Closeable resource : resources) {
+            try {
+                resource.close();
+            } catch (IOException e) {
+                log.warn("Failed to close {}", resource, e);
+            }
+        }
+        for (Path file : temporaryFiles) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Failed to delete {}", file, e);
+            }
+        }
+    }
+}
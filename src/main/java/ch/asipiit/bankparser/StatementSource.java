@@ -0,0 +1,10 @@
+package ch.asipiit.bankparser;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface StatementSource {
+    String getName();
+    long getSize();
+    InputStream openStream() throws IOException;
+}
@@ -0,0 +1,322 @@
+package ch.asipiit.bankparser;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Pull parser for the {@code Ntry} elements of CAMT.052, CAMT.053 and CAMT.054 documents.
+ * Entries are mapped to {@link Transaction}s one at a time, so memory use does not
+ * grow with the size of the document. The mapping mirrors the Prowide based path.
+ */
+public class StreamingCamtParser {
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+    private static final int MAX_ENTRY_DEPTH = 16;
+
+    public List<Transaction> parse(Reader xmlReader) throws XMLStreamException {
+        List<Transaction> transactions = new ArrayList<>();
+        parse(xmlReader, transactions::add);
+        return transactions;
+    }
+
+    public void parse(Reader xmlReader, Consumer<Transaction> consumer) throws XMLStreamException {
+        parse(INPUT_FACTORY.createXMLStreamReader(xmlReader), consumer);
+    }
+
+    public List<Transaction> parse(InputStream xmlStream) throws XMLStreamException {
+        List<Transaction> transactions = new ArrayList<>();
+        parse(xmlStream, transactions::add);
+        return transactions;
+    }
+
+    public void parse(InputStream xmlStream, Consumer<Transaction> consumer) throws XMLStreamException {
+        parse(INPUT_FACTORY.createXMLStreamReader(xmlStream), consumer);
+    }
+
+    /**
+     * Appends the entries straight to {@code batch} without creating {@link Transaction} objects.
+     */
+    public void parse(InputStream xmlStream, TransactionBatch batch) throws XMLStreamException {
+        readEntries(INPUT_FACTORY.createXMLStreamReader(xmlStream), entry -> entry.appendTo(batch));
+    }
+
+    private void parse(XMLStreamReader reader, Consumer<Transaction> consumer) throws XMLStreamException {
+        readEntries(reader, entry -> consumer.accept(entry.toTransaction()));
+    }
+
+    private void readEntries(XMLStreamReader reader, Consumer<EntryState> consumer) throws XMLStreamException {
+        try {
+            readEntriesUntilEnd(reader, consumer);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void readEntriesUntilEnd(XMLStreamReader reader, Consumer<EntryState> consumer) throws XMLStreamException {
+        EntryState entry = null;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = reader.getLocalName();
+                if (entry == null) {
+                    if ("Ntry".equals(name)) {
+                        entry = new EntryState();
+                    }
+                } else {
+                    entry.startElement(name, reader);
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && entry != null) {
+                if (entry.depth == 0) {
+                    consumer.accept(entry);
+                    entry = null;
+                } else {
+                    entry.depth--;
+                }
+            }
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    private static final class EntryState {
+        private final String[] path = new String[MAX_ENTRY_DEPTH];
+        private int depth;
+
+        private int entryDetailsSeen;
+        private int transactionDetailsSeen;
+        private int structuredRemittancesSeen;
+
+        private String debtorName;
+        private String date;
+        private String amount;
+        private String reference;
+        private String creditDebitIndicator;
+        private String accountServicerReference;
+        private String transactionAccountServicerReference;
+        private String endToEndId;
+
+        void startElement(String name, XMLStreamReader reader) throws XMLStreamException {
+            switch (depth) {
+                case 0 -> {
+                    switch (name) {
+                        case "Amt" -> {
+                            amount = reader.getElementText();
+                            return;
+                        }
+                        case "CdtDbtInd" -> {
+                            creditDebitIndicator = reader.getElementText();
+                            return;
+                        }
+                        case "AcctSvcrRef" -> {
+                            accountServicerReference = reader.getElementText();
+                            return;
+                        }
+                        case "NtryDtls" -> entryDetailsSeen++;
+                        default -> { }
+                    }
+                }
+                case 1 -> {
+                    if ("Dt".equals(name) && "BookgDt".equals(path[0])) {
+                        date = reader.getElementText();
+                        return;
+                    }
+                    if ("TxDtls".equals(name) && inFirstEntryDetails()) {
+                        transactionDetailsSeen++;
+                    }
+                }
+                case 3 -> {
+                    if ("Strd".equals(name) && inFirstTransactionDetails() && at("RmtInf")) {
+                        structuredRemittancesSeen++;
+                    }
+                    if (inFirstTransactionDetails() && at("Refs")) {
+                        if ("AcctSvcrRef".equals(name)) {
+                            transactionAccountServicerReference = reader.getElementText();
+                            return;
+                        }
+                        if ("EndToEndId".equals(name)) {
+                            endToEndId = reader.getElementText();
+                            return;
+                        }
+                    }
+                }
+                case 4 -> {
+                    // version 04 messages have no Pty level between Dbtr and Nm
+                    if ("Nm".equals(name) && inFirstTransactionDetails() && at("RltdPties", "Dbtr")) {
+                        debtorName = reader.getElementText();
+                        return;
+                    }
+                }
+                case 5 -> {
+                    if ("Nm".equals(name) && inFirstTransactionDetails() && at("RltdPties", "Dbtr", "Pty")) {
+                        debtorName = reader.getElementText();
+                        return;
+                    }
+                    if ("Ref".equals(name) && inFirstTransactionDetails() && structuredRemittancesSeen == 1
+                            && at("RmtInf", "Strd", "CdtrRefInf")) {
+                        reference = reader.getElementText();
+                        return;
+                    }
+                }
+                default -> { }
+            }
+
+            if (depth < MAX_ENTRY_DEPTH) {
+                path[depth] = name;
+            }
+            depth++;
+        }
+
+        private boolean inFirstEntryDetails() {
+            return entryDetailsSeen == 1 && "NtryDtls".equals(path[0]);
+        }
+
+        private boolean inFirstTransactionDetails() {
+            return inFirstEntryDetails() && transactionDetailsSeen == 1 && "TxDtls".equals(path[1]);
+        }
+
+        private boolean at(String... names) {
+            for (int i = 0; i < names.length; i++) {
+                if (!names[i].equals(path[i + 2])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        Transaction toTransaction() {
+            return new Transaction(
+                    debtorName(),
+                    parseDate(date),
+                    parseAmount(amount),
+                    reference != null ? reference : "",
+                    type(),
+                    EntryKeys.entryReference(accountServicerReference, transactionAccountServicerReference, endToEndId)
+            );
+        }
+
+        void appendTo(TransactionBatch batch) {
+            int epochDay = (int) parseDate(date).toEpochDay();
+            long amountMinor = parseMinorUnits(amount);
+            TransactionType type = type();
+            String entryReference = EntryKeys.entryReference(accountServicerReference,
+                    transactionAccountServicerReference, endToEndId);
+            batch.add(debtorName(), epochDay, amountMinor, type,
+                    EntryKeys.key(epochDay, amountMinor, type, entryReference, debtorName(), reference));
+        }
+
+        private String debtorName() {
+            return debtorName != null ? debtorName : "Unknown";
+        }
+
+        private TransactionType type() {
+            return creditDebitIndicator != null && "CRDT".equalsIgnoreCase(creditDebitIndicator.trim())
+                    ? TransactionType.CREDIT
+                    : TransactionType.DEBIT;
+        }
+
+        /**
+         * Reads the {@code yyyy-MM-dd} prefix of an ISO date or date-time digit by digit; anything
+         * missing or invalid falls back to today, as before.
+         */
+        private static LocalDate parseDate(String value) {
+            if (value == null) {
+                return LocalDate.now();
+            }
+            int start = 0;
+            int end = value.length();
+            while (start < end && Character.isWhitespace(value.charAt(start))) {
+                start++;
+            }
+            if (end - start < 10 || value.charAt(start + 4) != '-' || value.charAt(start + 7) != '-') {
+                return LocalDate.now();
+            }
+            int year = digits(value, start, 4);
+            int month = digits(value, start + 5, 2);
+            int day = digits(value, start + 8, 2);
+            if (year < 0 || month < 1 || month > 12 || day < 1
+                    || day > Month.of(month).length(Year.isLeap(year))) {
+                return LocalDate.now();
+            }
+            return LocalDate.of(year, month, day);
+        }
+
+        private static int digits(String value, int offset, int count) {
+            int result = 0;
+            for (int i = offset; i < offset + count; i++) {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9') {
+                    return -1;
+                }
+                result = result * 10 + (c - '0');
+            }
+            return result;
+        }
+
+        /**
+         * Reads plain amounts such as {@code 1234.5} digit by digit; anything else (exponents,
+         * more than two decimals, very long values) goes through {@link BigDecimal}.
+         */
+        private static long parseMinorUnits(String value) {
+            if (value == null) {
+                return 0;
+            }
+            String trimmed = value.trim();
+            int length = trimmed.length();
+            if (length == 0 || length > 15) {
+                return TransactionBatch.toMinorUnits(parseAmount(value));
+            }
+
+            int start = trimmed.charAt(0) == '-' || trimmed.charAt(0) == '+' ? 1 : 0;
+            long units = 0;
+            int decimals = -1;
+            for (int i = start; i < length; i++) {
+                char c = trimmed.charAt(i);
+                if (c == '.' && decimals < 0) {
+                    decimals = 0;
+                } else if (c >= '0' && c <= '9' && decimals < 2) {
+                    units = units * 10 + (c - '0');
+                    if (decimals >= 0) {
+                        decimals++;
+                    }
+                } else {
+                    return TransactionBatch.toMinorUnits(parseAmount(value));
+                }
+            }
+            if (start == length) {
+                return 0;
+            }
+            for (int i = Math.max(decimals, 0); i < 2; i++) {
+                units *= 10;
+            }
+            return trimmed.charAt(0) == '-' ? -units : units;
+        }
+
+        private static BigDecimal parseAmount(String value) {
+            if (value == null) {
+                return BigDecimal.ZERO;
+            }
+            try {
+                return new BigDecimal(value.trim());
+            } catch (NumberFormatException e) {
+                return BigDecimal.ZERO;
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package ch.asipiit.bankparser;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
@@ -9,13 +11,30 @@ public class Transaction {
     private final BigDecimal amount;
     private final String reference;
     private final TransactionType type;
+    private final String entryReference;
 
     public Transaction(String debtorName, LocalDate date, BigDecimal amount, String reference, TransactionType type) {
+        this(debtorName, date, amount, reference, type, null);
+    }
+
+    /**
+     * @param entryReference the bank's identifier of the booking (account servicer reference or
+     *                       end-to-end id), or {@code null} if the statement carries none
+     */
+    public Transaction(
+            String debtorName,
+            LocalDate date,
+            BigDecimal amount,
+            String reference,
+            TransactionType type,
+            String entryReference
+    ) {
         this.debtorName = debtorName;
         this.date = date;
         this.amount = amount;
         this.reference = reference;
         this.type = type;
+        this.entryReference = entryReference;
     }
 
     public String getDebtorName() {
@@ -37,4 +56,9 @@ public class Transaction {
     public TransactionType getType() {
         return type;
     }
-}
\ No newline at end of file
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getEntryReference() {
+        return entryReference;
+    }
+}
@@ -0,0 +1,196 @@
+package ch.asipiit.bankparser;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar form of a set of transactions holding only what the analysis needs: parallel
+ * primitive arrays for the amount in minor units (rappen), the booking date as epoch day and
+ * the type, plus a donor id and the entry key (see {@link EntryKeys#key}) per row. Donor names
+ * are dictionary-encoded, so each distinct name is stored once. References are not kept.
+ */
+public class TransactionBatch {
+    private static final int DEFAULT_CAPACITY = 256;
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final int MINOR_UNIT_SCALE = 2;
+    private static final int DONOR_OVERHEAD_BYTES = 96;
+
+    private long[] amounts;
+    private int[] epochDays;
+    private byte[] types;
+    private int[] donorIds;
+    private long[] keys;
+    private int size;
+
+    private final Map<String, Integer> donorIdsByName = new HashMap<>();
+    private final List<String> donorNames = new ArrayList<>();
+
+    public TransactionBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TransactionBatch(int capacity) {
+        int initial = Math.max(capacity, 1);
+        amounts = new long[initial];
+        epochDays = new int[initial];
+        types = new byte[initial];
+        donorIds = new int[initial];
+        keys = new long[initial];
+    }
+
+    public static TransactionBatch from(List<Transaction> transactions) {
+        TransactionBatch batch = new TransactionBatch(transactions.size());
+        for (Transaction transaction : transactions) {
+            batch.add(transaction);
+        }
+        return batch;
+    }
+
+    public void add(Transaction transaction) {
+        add(
+                transaction.getDebtorName(),
+                (int) transaction.getDate().toEpochDay(),
+                toMinorUnits(transaction.getAmount()),
+                transaction.getType(),
+                EntryKeys.key(transaction)
+        );
+    }
+
+    public void add(String donorName, int epochDay, long amountMinor, TransactionType type, long key) {
+        addRow(donorId(donorName), epochDay, amountMinor, (byte) type.ordinal(), key);
+    }
+
+    /**
+     * Appends all rows of {@code other}, re-mapping its donor ids onto this batch's dictionary.
+     */
+    public TransactionBatch addAll(TransactionBatch other) {
+        return addRows(other, null);
+    }
+
+    /**
+     * Copy of this batch without the rows flagged in {@code excluded}.
+     */
+    public TransactionBatch without(boolean[] excluded) {
+        return new TransactionBatch(size).addRows(this, excluded);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getAmountMinor(int index) {
+        return amounts[index];
+    }
+
+    public int getEpochDay(int index) {
+        return epochDays[index];
+    }
+
+    public TransactionType getType(int index) {
+        return TYPES[types[index]];
+    }
+
+    public boolean isCredit(int index) {
+        return types[index] == TransactionType.CREDIT.ordinal();
+    }
+
+    public long getKey(int index) {
+        return keys[index];
+    }
+
+    public int getDonorId(int index) {
+        return donorIds[index];
+    }
+
+    public int getDonorCount() {
+        return donorNames.size();
+    }
+
+    public String getDonorName(int donorId) {
+        return donorNames.get(donorId);
+    }
+
+    /**
+     * Rebuilds row {@code index} as a {@link Transaction}; the reference is empty.
+     */
+    public Transaction toTransaction(int index) {
+        return new Transaction(
+                donorNames.get(donorIds[index]),
+                LocalDate.ofEpochDay(epochDays[index]),
+                fromMinorUnits(amounts[index]),
+                "",
+                getType(index)
+        );
+    }
+
+    /**
+     * Approximate heap taken by the rows and the donor dictionary.
+     */
+    public long estimateSizeInBytes() {
+        long bytes = (long) amounts.length * (Long.BYTES + Integer.BYTES + 1 + Integer.BYTES + Long.BYTES);
+        for (String name : donorNames) {
+            bytes += DONOR_OVERHEAD_BYTES + 2L * name.length();
+        }
+        return bytes;
+    }
+
+    public static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(MINOR_UNIT_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromMinorUnits(long amountMinor) {
+        return BigDecimal.valueOf(amountMinor, MINOR_UNIT_SCALE);
+    }
+
+    private int donorId(String donorName) {
+        Integer id = donorIdsByName.get(donorName);
+        if (id == null) {
+            id = donorNames.size();
+            donorNames.add(donorName);
+            donorIdsByName.put(donorName, id);
+        }
+        return id;
+    }
+
+    private TransactionBatch addRows(TransactionBatch other, boolean[] excluded) {
+        int[] remapped = new int[other.donorNames.size()];
+        for (int id = 0; id < remapped.length; id++) {
+            remapped[id] = donorId(other.donorNames.get(id));
+        }
+        ensureCapacity(size + other.size);
+        for (int i = 0; i < other.size; i++) {
+            if (excluded == null || !excluded[i]) {
+                addRow(remapped[other.donorIds[i]], other.epochDays[i], other.amounts[i], other.types[i], other.keys[i]);
+            }
+        }
+        return this;
+    }
+
+    private void addRow(int donorId, int epochDay, long amountMinor, byte type, long key) {
+        ensureCapacity(size + 1);
+        amounts[size] = amountMinor;
+        epochDays[size] = epochDay;
+        types[size] = type;
+        donorIds[size] = donorId;
+        keys[size] = key;
+        size++;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= amounts.length) {
+            return;
+        }
+        int capacity = Math.max(required, amounts.length + (amounts.length >> 1));
+        amounts = Arrays.copyOf(amounts, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        types = Arrays.copyOf(types, capacity);
+        donorIds = Arrays.copyOf(donorIds, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+    }
+}
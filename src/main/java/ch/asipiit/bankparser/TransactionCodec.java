@@ -0,0 +1,124 @@
+package ch.asipiit.bankparser;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Compact binary form of a {@link Transaction}:
+ * <pre>
+ * int epochDay | byte type | byte scale | byte n | n bytes unscaled amount
+ *              | u16 n | n bytes debtor name | u16 n | n bytes reference | u16 n | n bytes entry reference
+ * </pre>
+ * A missing entry reference is written empty and read back as {@code null}.
+ * Records are read with absolute gets, so a shared (e.g. memory-mapped) buffer can be
+ * read from several threads at once.
+ */
+final class TransactionCodec {
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private TransactionCodec() {
+    }
+
+    static int write(DataOutputStream out, Transaction transaction) throws IOException {
+        int start = out.size();
+        BigDecimal amount = transaction.getAmount();
+        if (amount.scale() < Byte.MIN_VALUE || amount.scale() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Amount scale out of range: " + amount);
+        }
+        byte[] unscaled = amount.unscaledValue().toByteArray();
+
+        out.writeInt((int) transaction.getDate().toEpochDay());
+        out.writeByte(transaction.getType().ordinal());
+        out.writeByte(amount.scale());
+        out.writeByte(unscaled.length);
+        out.write(unscaled);
+        writeString(out, transaction.getDebtorName());
+        writeString(out, transaction.getReference());
+        writeString(out, transaction.getEntryReference());
+        return out.size() - start;
+    }
+
+    static Transaction read(ByteBuffer buffer, int offset) {
+        int epochDay = buffer.getInt(offset);
+        TransactionType type = TYPES[buffer.get(offset + 4)];
+        int scale = buffer.get(offset + 5);
+        int unscaledLength = buffer.get(offset + 6);
+        byte[] unscaled = new byte[unscaledLength];
+        buffer.get(offset + 7, unscaled);
+
+        int position = offset + 7 + unscaledLength;
+        String debtorName = readString(buffer, position);
+        position += 2 + Short.toUnsignedInt(buffer.getShort(position));
+        String reference = readString(buffer, position);
+        position += 2 + Short.toUnsignedInt(buffer.getShort(position));
+        String entryReference = readString(buffer, position);
+
+        return new Transaction(
+                debtorName,
+                LocalDate.ofEpochDay(epochDay),
+                new BigDecimal(new BigInteger(unscaled), scale),
+                reference,
+                type,
+                entryReference.isEmpty() ? null : entryReference
+        );
+    }
+
+    /**
+     * Appends the record to {@code batch} without materializing a {@link Transaction}; amounts
+     * of up to eight unscaled bytes at scale 2 are read without allocating.
+     */
+    static void readInto(ByteBuffer buffer, int offset, long key, TransactionBatch batch) {
+        int epochDay = buffer.getInt(offset);
+        TransactionType type = TYPES[buffer.get(offset + 4)];
+        int scale = buffer.get(offset + 5);
+        int unscaledLength = buffer.get(offset + 6);
+
+        long amountMinor;
+        if (scale == 2 && unscaledLength <= Long.BYTES) {
+            amountMinor = buffer.get(offset + 7);
+            for (int i = 1; i < unscaledLength; i++) {
+                amountMinor = (amountMinor << 8) | Byte.toUnsignedInt(buffer.get(offset + 7 + i));
+            }
+        } else {
+            byte[] unscaled = new byte[unscaledLength];
+            buffer.get(offset + 7, unscaled);
+            amountMinor = TransactionBatch.toMinorUnits(new BigDecimal(new BigInteger(unscaled), scale));
+        }
+
+        batch.add(readDebtorName(buffer, offset), epochDay, amountMinor, type, key);
+    }
+
+    static int recordLength(ByteBuffer buffer, int offset) {
+        int position = offset + 7 + buffer.get(offset + 6);
+        position += 2 + Short.toUnsignedInt(buffer.getShort(position));
+        position += 2 + Short.toUnsignedInt(buffer.getShort(position));
+        position += 2 + Short.toUnsignedInt(buffer.getShort(position));
+        return position - offset;
+    }
+
+    static String readDebtorName(ByteBuffer buffer, int offset) {
+        return readString(buffer, offset + 7 + buffer.get(offset + 6));
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Text field too long: " + bytes.length + " bytes");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer buffer, int offset) {
+        int length = Short.toUnsignedInt(buffer.getShort(offset));
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,324 @@
+package ch.asipiit.bankparser;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One immutable, memory-mapped file of transactions sorted by booking date.
+ * <pre>
+ * records... | index: (int epochDay, int offset) per record | keys: long per record
+ *            | donors: int n, per donor: u16 n | n bytes name | int n | n &times; int record
+ *            | rollup (see {@link DonationRollup#writeTo})
+ *            | int count | int indexOffset | int keysOffset | int donorsOffset | int rollupOffset | int magic
+ * </pre>
+ * The index lives in the file itself, so a date range is found by binary search over the
+ * mapped index without reading any records outside the range. Entry keys, donor postings and
+ * monthly rollups are stored alongside, so opening a segment does not decode its records.
+ */
+public class TransactionSegment {
+    private static final int MAGIC = 0x42505332; // "BPS2"
+    private static final int TRAILER_SIZE = 24;
+    private static final int INDEX_ENTRY_SIZE = 8;
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final int indexOffset;
+    private final int keysOffset;
+    private final int rollupOffset;
+    private final Map<String, int[]> donors;
+
+    private TransactionSegment(Path file, MappedByteBuffer buffer, int count, int indexOffset, int keysOffset,
+                               int rollupOffset, Map<String, int[]> donors) {
+        this.file = file;
+        this.buffer = buffer;
+        this.count = count;
+        this.indexOffset = indexOffset;
+        this.keysOffset = keysOffset;
+        this.rollupOffset = rollupOffset;
+        this.donors = donors;
+    }
+
+    /**
+     * Writes {@code transactions} with their entry keys ({@code keys[i]} belongs to
+     * {@code transactions.get(i)}) as a new segment.
+     */
+    public static TransactionSegment write(Path file, List<Transaction> transactions, long[] keys) throws IOException {
+        Integer[] order = new Integer[transactions.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing((Integer i) -> transactions.get(i).getDate()));
+
+        DonationRollup rollup = new DonationRollup();
+        try (SegmentWriter writer = new SegmentWriter(file, order.length)) {
+            for (int i : order) {
+                Transaction transaction = transactions.get(i);
+                int epochDay = (int) transaction.getDate().toEpochDay();
+                TransactionCodec.write(writer.startRecord(epochDay, keys[i], transaction.getDebtorName()), transaction);
+                rollup.add(transaction.getDebtorName(), epochDay, TransactionBatch.toMinorUnits(transaction.getAmount()),
+                        transaction.getType() == TransactionType.CREDIT);
+            }
+            return writer.finish(rollup);
+        }
+    }
+
+    /**
+     * Writes the records of two segments into one, in booking date order, copying the encoded
+     * records as they are. On equal dates records of {@code first} come first.
+     */
+    public static TransactionSegment merge(Path file, TransactionSegment first, TransactionSegment second)
+            throws IOException {
+        String[] firstDonors = first.donorPerRecord();
+        String[] secondDonors = second.donorPerRecord();
+        DonationRollup rollup = first.readRollup();
+        rollup.merge(second.readRollup());
+
+        byte[] record = new byte[256];
+        try (SegmentWriter writer = new SegmentWriter(file, first.count + second.count)) {
+            int i = 0;
+            int j = 0;
+            while (i < first.count || j < second.count) {
+                TransactionSegment from;
+                int index;
+                String donor;
+                if (j == second.count || (i < first.count && first.epochDay(i) <= second.epochDay(j))) {
+                    from = first;
+                    index = i;
+                    donor = firstDonors[i++];
+                } else {
+                    from = second;
+                    index = j;
+                    donor = secondDonors[j++];
+                }
+                int offset = from.recordOffset(index);
+                int length = TransactionCodec.recordLength(from.buffer, offset);
+                if (length > record.length) {
+                    record = new byte[Math.max(length, record.length * 2)];
+                }
+                from.buffer.get(offset, record, 0, length);
+                writer.startRecord(from.epochDay(index), from.getKey(index), donor).write(record, 0, length);
+            }
+            return writer.finish(rollup);
+        }
+    }
+
+    public static TransactionSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < TRAILER_SIZE) {
+                throw new IOException("Segment too small: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt((int) size - 4) != MAGIC) {
+                throw new IOException("Not a transaction segment: " + file);
+            }
+            int trailer = (int) size - TRAILER_SIZE;
+            return new TransactionSegment(file, buffer, buffer.getInt(trailer), buffer.getInt(trailer + 4),
+                    buffer.getInt(trailer + 8), buffer.getInt(trailer + 16), readDonors(buffer, buffer.getInt(trailer + 12)));
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public Transaction get(int index) {
+        return TransactionCodec.read(buffer, recordOffset(index));
+    }
+
+    public long getKey(int index) {
+        return buffer.getLong(keysOffset + index * Long.BYTES);
+    }
+
+    /**
+     * Positions of the donor's records in date order; empty if the donor has none here.
+     */
+    public int[] findDonor(String debtorName) {
+        int[] postings = donors.get(debtorName);
+        return postings != null ? postings : new int[0];
+    }
+
+    public DonationRollup readRollup() {
+        return DonationRollup.read(buffer, rollupOffset);
+    }
+
+    /**
+     * Adds the transactions booked between {@code from} and {@code to} (inclusive, either may be null).
+     */
+    public void findByDateRange(LocalDate from, LocalDate to, List<Transaction> result) {
+        int start = from != null ? firstIndexOnOrAfter(from.toEpochDay()) : 0;
+        long last = to != null ? to.toEpochDay() : Long.MAX_VALUE;
+        for (int i = start; i < count && epochDay(i) <= last; i++) {
+            result.add(get(i));
+        }
+    }
+
+    public void findByDateRange(LocalDate from, LocalDate to, TransactionBatch result) {
+        int start = from != null ? firstIndexOnOrAfter(from.toEpochDay()) : 0;
+        long last = to != null ? to.toEpochDay() : Long.MAX_VALUE;
+        for (int i = start; i < count && epochDay(i) <= last; i++) {
+            TransactionCodec.readInto(buffer, recordOffset(i), getKey(i), result);
+        }
+    }
+
+    private String[] donorPerRecord() {
+        String[] names = new String[count];
+        for (Map.Entry<String, int[]> donor : donors.entrySet()) {
+            for (int index : donor.getValue()) {
+                names[index] = donor.getKey();
+            }
+        }
+        return names;
+    }
+
+    private int firstIndexOnOrAfter(long epochDay) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDay(mid) < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int epochDay(int index) {
+        return buffer.getInt(indexOffset + index * INDEX_ENTRY_SIZE);
+    }
+
+    private int recordOffset(int index) {
+        return buffer.getInt(indexOffset + index * INDEX_ENTRY_SIZE + 4);
+    }
+
+    private static Map<String, int[]> readDonors(MappedByteBuffer buffer, int offset) {
+        int donorCount = buffer.getInt(offset);
+        Map<String, int[]> donors = new HashMap<>(Math.max(16, donorCount * 2));
+        int position = offset + 4;
+        for (int i = 0; i < donorCount; i++) {
+            String name = TransactionCodec.readString(buffer, position);
+            position += 2 + Short.toUnsignedInt(buffer.getShort(position));
+            int[] postings = new int[buffer.getInt(position)];
+            position += 4;
+            for (int p = 0; p < postings.length; p++) {
+                postings[p] = buffer.getInt(position);
+                position += 4;
+            }
+            donors.put(name, postings);
+        }
+        return donors;
+    }
+
+    /**
+     * Writes records to a temporary file and moves the finished segment into place, so a
+     * segment file is either complete or absent.
+     */
+    private static final class SegmentWriter implements Closeable {
+        private final Path file;
+        private final Path temporary;
+        private final DataOutputStream out;
+        private final int[] offsets;
+        private final int[] epochDays;
+        private final long[] keys;
+        private final Map<String, Postings> donors = new LinkedHashMap<>();
+        private int count;
+        private boolean finished;
+
+        SegmentWriter(Path file, int capacity) throws IOException {
+            this.file = file;
+            this.temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)));
+            this.offsets = new int[capacity];
+            this.epochDays = new int[capacity];
+            this.keys = new long[capacity];
+        }
+
+        /**
+         * Registers the next record, which the caller then writes to the returned stream.
+         */
+        DataOutputStream startRecord(int epochDay, long key, String debtorName) {
+            offsets[count] = out.size();
+            epochDays[count] = epochDay;
+            keys[count] = key;
+            donors.computeIfAbsent(debtorName, name -> new Postings()).add(count);
+            count++;
+            return out;
+        }
+
+        TransactionSegment finish(DonationRollup rollup) throws IOException {
+            int indexOffset = out.size();
+            for (int i = 0; i < count; i++) {
+                out.writeInt(epochDays[i]);
+                out.writeInt(offsets[i]);
+            }
+            int keysOffset = out.size();
+            for (int i = 0; i < count; i++) {
+                out.writeLong(keys[i]);
+            }
+            int donorsOffset = out.size();
+            out.writeInt(donors.size());
+            for (Map.Entry<String, Postings> donor : donors.entrySet()) {
+                TransactionCodec.writeString(out, donor.getKey());
+                Postings postings = donor.getValue();
+                out.writeInt(postings.size);
+                for (int i = 0; i < postings.size; i++) {
+                    out.writeInt(postings.indexes[i]);
+                }
+            }
+            int rollupOffset = out.size();
+            rollup.writeTo(out);
+            out.writeInt(count);
+            out.writeInt(indexOffset);
+            out.writeInt(keysOffset);
+            out.writeInt(donorsOffset);
+            out.writeInt(rollupOffset);
+            out.writeInt(MAGIC);
+            out.close();
+            finished = true;
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+            return open(file);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!finished) {
+                out.close();
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+
+    private static final class Postings {
+        private int[] indexes = new int[4];
+        private int size;
+
+        void add(int index) {
+            if (size == indexes.length) {
+                indexes = Arrays.copyOf(indexes, size * 2);
+            }
+            indexes[size++] = index;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package ch.asipiit.bankparser;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Embedded history of parsed transactions, kept as append-only segment files. Each ingest
+ * writes one new date-sorted segment. Segments are memory-mapped and carry their own booking
+ * date index, donor postings, entry keys and per-donor monthly donation rollups, so opening the
+ * store reads these tables rather than decoding every record. After each append the newest
+ * segments are merged while the older one is no larger than the newer one, which keeps the
+ * number of segments logarithmic in the number of stored transactions and rewrites each
+ * record only a logarithmic number of times.
+ */
+@Component
+public class TransactionStore {
+    private static final Logger log = LoggerFactory.getLogger(TransactionStore.class);
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final boolean enabled;
+    private final List<TransactionSegment> segments = new ArrayList<>();
+    private final LongHashSet entryKeys = new LongHashSet();
+    private final DonationRollup rollup = new DonationRollup();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * The store is off unless enabled explicitly, and then needs a directory of its own; a
+     * temporary directory would lose the history on reboot or to tmp cleaners.
+     */
+    @Autowired
+    public TransactionStore(
+            @Value("${bankparser.store.directory:}") String directory,
+            @Value("${bankparser.store.enabled:false}") boolean enabled
+    ) {
+        this(resolveDirectory(directory, enabled), enabled);
+    }
+
+    public TransactionStore(Path directory, boolean enabled) {
+        this.directory = directory;
+        this.enabled = enabled;
+        if (enabled) {
+            load();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Persists the transactions as a new segment, skipping ones already stored so that
+     * re-uploading a statement does not count its entries twice. Entries are matched by
+     * {@link EntryKeys}, so identical entries within one upload are all kept.
+     */
+    public int append(List<Transaction> transactions) {
+        if (!enabled || transactions.isEmpty()) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            long[] keys = EntryKeys.keys(transactions);
+            List<Transaction> fresh = new ArrayList<>(transactions.size());
+            long[] freshKeys = new long[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                if (entryKeys.add(keys[i])) {
+                    freshKeys[fresh.size()] = keys[i];
+                    fresh.add(transactions.get(i));
+                }
+            }
+            if (fresh.isEmpty()) {
+                return 0;
+            }
+
+            int number = nextSegmentNumber();
+            TransactionSegment segment = TransactionSegment.write(segmentFile(number, number), fresh, freshKeys);
+            segments.add(segment);
+            rollup.merge(segment.readRollup());
+            compact();
+            return fresh.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to transaction store", e);
+        } finally {
+            lock.writeLock().unlock();
+            RequestTimings.record("store", System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Transactions booked between {@code from} and {@code to}, both inclusive and both optional,
+     * ordered by booking date.
+     */
+    public List<Transaction> findByDateRange(LocalDate from, LocalDate to) {
+        List<Transaction> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (TransactionSegment segment : segments) {
+                segment.findByDateRange(from, to, result);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        result.sort(Comparator.comparing(Transaction::getDate));
+        return result;
+    }
+
+    /**
+     * Donation sums per donor and month for the days between {@code from} and {@code to}, both
+     * inclusive and both optional. Whole months are taken from the rollup kept up to date on
+     * every append; only the records of a partly covered first or last month are read.
+     */
+    public DonationRollup findDonationRollup(LocalDate from, LocalDate to) {
+        YearMonth firstWholeMonth = null;
+        if (from != null) {
+            firstWholeMonth = from.getDayOfMonth() == 1 ? YearMonth.from(from) : YearMonth.from(from).plusMonths(1);
+        }
+        YearMonth lastWholeMonth = null;
+        if (to != null) {
+            lastWholeMonth = to.getDayOfMonth() == to.lengthOfMonth() ? YearMonth.from(to) : YearMonth.from(to).minusMonths(1);
+        }
+
+        DonationRollup result = new DonationRollup();
+        lock.readLock().lock();
+        try {
+            if (firstWholeMonth != null && lastWholeMonth != null && firstWholeMonth.isAfter(lastWholeMonth)) {
+                addRecords(result, from, to);
+                return result;
+            }
+            result.merge(rollup, firstWholeMonth, lastWholeMonth);
+            if (from != null && from.getDayOfMonth() != 1) {
+                addRecords(result, from, YearMonth.from(from).atEndOfMonth());
+            }
+            if (to != null && to.getDayOfMonth() != to.lengthOfMonth()) {
+                addRecords(result, YearMonth.from(to).atDay(1), to);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Monthly donation totals per donor from the rollup kept up to date on every append; both
+     * months are inclusive and optional.
+     */
+    public List<DonorMonths> findMonthlyDonations(YearMonth from, YearMonth to) {
+        lock.readLock().lock();
+        try {
+            return rollup.findDonors(from, to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long countTransactions(YearMonth from, YearMonth to) {
+        lock.readLock().lock();
+        try {
+            return rollup.countTransactions(from, to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Transaction> findByDonor(String debtorName) {
+        lock.readLock().lock();
+        try {
+            List<Transaction> result = new ArrayList<>();
+            for (TransactionSegment segment : segments) {
+                for (int index : segment.findDonor(debtorName)) {
+                    result.add(segment.get(index));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getSegmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addRecords(DonationRollup result, LocalDate from, LocalDate to) {
+        TransactionBatch batch = new TransactionBatch();
+        for (TransactionSegment segment : segments) {
+            segment.findByDateRange(from, to, batch);
+        }
+        result.addAll(batch);
+    }
+
+    private void load() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing
+                        .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                        .sorted(Comparator.comparingInt(TransactionStore::firstNumber)
+                                .thenComparing(Comparator.comparingInt(TransactionStore::lastNumber).reversed()))
+                        .toList();
+            }
+            int loadedUpTo = 0;
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMPORARY_SUFFIX)) {
+                    // a segment whose write was interrupted
+                    Files.delete(file);
+                } else if (name.endsWith(SEGMENT_SUFFIX) && firstNumber(file) <= loadedUpTo) {
+                    // already contained in a merged segment whose sources were not deleted yet
+                    log.info("Removing {}, it was merged into a later segment", file);
+                    Files.delete(file);
+                } else if (name.endsWith(SEGMENT_SUFFIX)) {
+                    segments.add(loadSegment(file));
+                    loadedUpTo = lastNumber(file);
+                }
+            }
+            compact();
+            log.info("Loaded {} transaction segment(s) from {}", segments.size(), directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open transaction store at " + directory, e);
+        }
+    }
+
+    private TransactionSegment loadSegment(Path file) throws IOException {
+        TransactionSegment segment = TransactionSegment.open(file);
+        for (int i = 0; i < segment.size(); i++) {
+            entryKeys.add(segment.getKey(i));
+        }
+        rollup.merge(segment.readRollup());
+        return segment;
+    }
+
+    /**
+     * Merges the two newest segments while the older one holds no more records than the newer
+     * one. The merged file is named after the range of segment numbers it replaces and written
+     * before the replaced files are deleted, so an interrupted merge is completed on the next load.
+     */
+    private void compact() throws IOException {
+        while (segments.size() >= 2) {
+            TransactionSegment newer = segments.get(segments.size() - 1);
+            TransactionSegment older = segments.get(segments.size() - 2);
+            if (older.size() > newer.size()) {
+                return;
+            }
+            Path file = segmentFile(firstNumber(older.getFile()), lastNumber(newer.getFile()));
+            TransactionSegment merged = TransactionSegment.merge(file, older, newer);
+            segments.remove(segments.size() - 1);
+            segments.set(segments.size() - 1, merged);
+            Files.delete(older.getFile());
+            Files.delete(newer.getFile());
+        }
+    }
+
+    private int nextSegmentNumber() {
+        return segments.isEmpty() ? 1 : lastNumber(segments.get(segments.size() - 1).getFile()) + 1;
+    }
+
+    private Path segmentFile(int first, int last) {
+        String range = first == last ? String.format("%08d", first) : String.format("%08d-%08d", first, last);
+        return directory.resolve(SEGMENT_PREFIX + range + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Segment files are named {@code segment-<n>.seg}, or {@code segment-<first>-<last>.seg} once merged.
+     */
+    private static int firstNumber(Path file) {
+        return Integer.parseInt(segmentRange(file)[0]);
+    }
+
+    private static int lastNumber(Path file) {
+        String[] range = segmentRange(file);
+        return Integer.parseInt(range[range.length - 1]);
+    }
+
+    private static String[] segmentRange(Path file) {
+        String name = file.getFileName().toString();
+        int end = name.indexOf('.', SEGMENT_PREFIX.length());
+        return name.substring(SEGMENT_PREFIX.length(), end).split("-");
+    }
+
+    private static Path resolveDirectory(String directory, boolean enabled) {
+        if (directory == null || directory.isBlank()) {
+            if (enabled) {
+                throw new IllegalStateException("bankparser.store.directory must be set when the transaction store is enabled");
+            }
+            return null;
+        }
+        return Path.of(directory);
+    }
+}
@@ -0,0 +1,192 @@
+package ch.asipiit.bankparser;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admits parsing requests against a memory budget and a concurrency limit. Each request
+ * reserves the memory its uploads are estimated to need while parsed; requests that cannot be
+ * admitted within the queue timeout are turned away instead of risking an out-of-memory error.
+ * A request estimated above the whole budget is admitted once it can have the budget to itself.
+ */
+@Component
+public class UploadAdmission implements MeterBinder {
+    static final long REQUEST_OVERHEAD_BYTES = 1024 * 1024;
+    private static final int STREAMING_FACTOR = 3;
+    private static final int PROWIDE_FACTOR = 12;
+    private static final int COMPRESSED_FACTOR = 8;
+    private static final Ticket UNLIMITED = new Ticket(null, null, 0);
+
+    private final boolean enabled;
+    private final ParserMode parserMode;
+    private final int budgetKilobytes;
+    private final Duration queueTimeout;
+    private final Duration retryAfter;
+    private final Semaphore memory;
+    private final Semaphore requests;
+    private final int maxConcurrent;
+
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    @Autowired
+    public UploadAdmission(
+            @Value("${bankparser.admission.enabled:true}") boolean enabled,
+            @Value("${bankparser.admission.memory-budget:0}") DataSize memoryBudget,
+            @Value("${bankparser.admission.max-concurrent:4}") int maxConcurrent,
+            @Value("${bankparser.admission.queue-timeout:2s}") Duration queueTimeout,
+            @Value("${bankparser.admission.retry-after:5s}") Duration retryAfter,
+            @Value("${bankparser.parser.mode:STREAMING}") ParserMode parserMode
+    ) {
+        long budgetBytes = memoryBudget.toBytes() > 0 ? memoryBudget.toBytes() : Runtime.getRuntime().maxMemory() / 2;
+        this.enabled = enabled;
+        this.parserMode = parserMode;
+        this.budgetKilobytes = (int) Math.min(Integer.MAX_VALUE, Math.max(1, budgetBytes / 1024));
+        this.maxConcurrent = maxConcurrent;
+        this.queueTimeout = queueTimeout;
+        this.retryAfter = retryAfter;
+        // fair, so that a large request waiting for memory is not overtaken by a stream of small ones
+        this.memory = new Semaphore(budgetKilobytes, true);
+        this.requests = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Estimated heap needed to parse an upload: the document model of the Prowide parser takes a
+     * multiple of the file size, the streaming parser mainly holds the mapped transactions.
+     * Compressed uploads are assumed to inflate several times.
+     */
+    public long estimate(String fileName, long size) {
+        long bytes = Math.max(size, 0) * (parserMode == ParserMode.PROWIDE ? PROWIDE_FACTOR : STREAMING_FACTOR);
+        String name = fileName != null ? fileName.toLowerCase(Locale.ROOT) : "";
+        if (name.endsWith(".gz") || name.endsWith(".zip")) {
+            bytes *= COMPRESSED_FACTOR;
+        }
+        return bytes;
+    }
+
+    /**
+     * Waits up to the queue timeout for a concurrency slot and for the estimated memory.
+     *
+     * @return the ticket to close once the request is done, or {@code null} if it was not admitted
+     */
+    public Ticket tryAcquire(long estimatedBytes) throws InterruptedException {
+        if (!enabled) {
+            return UNLIMITED;
+        }
+
+        int kilobytes = kilobytes(estimatedBytes);
+        long deadline = System.nanoTime() + queueTimeout.toNanos();
+        if (!requests.tryAcquire(queueTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            rejected.incrementAndGet();
+            return null;
+        }
+        if (!memory.tryAcquire(kilobytes, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+            requests.release();
+            rejected.incrementAndGet();
+            return null;
+        }
+        admitted.incrementAndGet();
+        return new Ticket(memory, requests, kilobytes);
+    }
+
+    /**
+     * Waits for a concurrency slot and for the estimated memory for as long as it takes, for
+     * work that has no client waiting on it, such as background jobs.
+     */
+    public Ticket acquire(long estimatedBytes) throws InterruptedException {
+        if (!enabled) {
+            return UNLIMITED;
+        }
+
+        int kilobytes = kilobytes(estimatedBytes);
+        requests.acquire();
+        try {
+            memory.acquire(kilobytes);
+        } catch (InterruptedException e) {
+            requests.release();
+            throw e;
+        }
+        admitted.incrementAndGet();
+        return new Ticket(memory, requests, kilobytes);
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public long getReservedBytes() {
+        return (long) (budgetKilobytes - memory.availablePermits()) * 1024;
+    }
+
+    public int getActiveRequests() {
+        return maxConcurrent - requests.availablePermits();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    private int kilobytes(long estimatedBytes) {
+        return (int) Math.min(budgetKilobytes, Math.max(1, (estimatedBytes + REQUEST_OVERHEAD_BYTES) / 1024));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled) {
+            return;
+        }
+        FunctionCounter.builder("bankparser.admission.requests", admitted, AtomicLong::get)
+                .description("Parsing requests passed through admission control")
+                .tag("result", "admitted")
+                .register(registry);
+        FunctionCounter.builder("bankparser.admission.requests", rejected, AtomicLong::get)
+                .description("Parsing requests passed through admission control")
+                .tag("result", "rejected")
+                .register(registry);
+        Gauge.builder("bankparser.admission.reserved", this, UploadAdmission::getReservedBytes)
+                .description("Heap reserved by admitted parsing requests")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        Gauge.builder("bankparser.admission.active", this, UploadAdmission::getActiveRequests)
+                .description("Parsing requests currently admitted")
+                .register(registry);
+    }
+
+    /**
+     * An admitted request's reservation; closing it more than once has no effect.
+     */
+    public static final class Ticket implements AutoCloseable {
+        private final Semaphore memory;
+        private final Semaphore requests;
+        private final int kilobytes;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Ticket(Semaphore memory, Semaphore requests, int kilobytes) {
+            this.memory = memory;
+            this.requests = requests;
+            this.kilobytes = kilobytes;
+        }
+
+        @Override
+        public void close() {
+            if (memory != null && released.compareAndSet(false, true)) {
+                memory.release(kilobytes);
+                requests.release();
+            }
+        }
+    }
+}
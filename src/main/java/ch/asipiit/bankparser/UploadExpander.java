@@ -0,0 +1,132 @@
+package ch.asipiit.bankparser;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Turns uploads into statements: plain XML is passed through, {@code .gz} files are inflated as
+ * they are read and every XML entry of a ZIP archive becomes a statement of its own. Formats
+ * are recognized by their magic bytes, not by file name. Multipart uploads at or above the
+ * multipart file-size threshold, which the servlet container has already spooled to disk, are
+ * moved out of the container's spool and memory-mapped instead of being read back as a stream.
+ */
+@Component
+public class UploadExpander {
+    private static final int ZIP_MAGIC = 0x504B0304;
+    private static final int GZIP_MAGIC = 0x1F8B;
+
+    private final long maxUncompressedSize;
+    private final int maxArchiveEntries;
+    private final long fileSizeThreshold;
+
+    public UploadExpander(DataSize maxUncompressedSize, int maxArchiveEntries) {
+        this(maxUncompressedSize, maxArchiveEntries, DataSize.ofBytes(Long.MAX_VALUE));
+    }
+
+    @Autowired
+    public UploadExpander(
+            @Value("${bankparser.upload.max-uncompressed-size:512MB}") DataSize maxUncompressedSize,
+            @Value("${bankparser.upload.max-archive-entries:1000}") int maxArchiveEntries,
+            @Value("${spring.servlet.multipart.file-size-threshold:0B}") DataSize fileSizeThreshold
+    ) {
+        this.maxUncompressedSize = maxUncompressedSize.toBytes();
+        this.maxArchiveEntries = maxArchiveEntries;
+        this.fileSizeThreshold = fileSizeThreshold.toBytes();
+    }
+
+    public StatementBundle expand(List<? extends StatementSource> uploads) throws IOException {
+        StatementBundle bundle = new StatementBundle();
+        try {
+            for (StatementSource upload : uploads) {
+                expand(upload, bundle);
+            }
+            return bundle;
+        } catch (IOException | RuntimeException e) {
+            bundle.close();
+            throw e;
+        }
+    }
+
+    private void expand(StatementSource upload, StatementBundle bundle) throws IOException {
+        if (upload instanceof MultipartStatementSource multipart && upload.getSize() >= fileSizeThreshold) {
+            upload = map(multipart, bundle);
+        }
+
+        int magic;
+        try (InputStream in = upload.openStream()) {
+            byte[] header = in.readNBytes(4);
+            magic = header.length < 4 ? 0
+                    : (header[0] & 0xFF) << 24 | (header[1] & 0xFF) << 16 | (header[2] & 0xFF) << 8 | header[3] & 0xFF;
+        }
+
+        if (magic == ZIP_MAGIC) {
+            expandZip(upload, bundle);
+        } else if (magic >>> 16 == GZIP_MAGIC) {
+            bundle.addSource(new GzipStatementSource(upload, maxUncompressedSize));
+        } else {
+            bundle.addSource(upload);
+        }
+    }
+
+    private static StatementSource map(MultipartStatementSource upload, StatementBundle bundle) throws IOException {
+        Path file = Files.createTempFile("bankparser-upload-", ".upload");
+        bundle.addTemporaryFile(file);
+        // Part.write renames a part spooled to disk onto the temporary file where the file system allows it
+        upload.transferTo(file);
+        return new MappedFileStatementSource(upload.getName(), file);
+    }
+
+    private void expandZip(StatementSource upload, StatementBundle bundle) throws IOException {
+        Path archivePath;
+        if (upload instanceof FileStatementSource file) {
+            archivePath = file.getFile();
+        } else {
+            // ZipFile needs random access; the compressed upload is copied, entries are never extracted
+            archivePath = Files.createTempFile("bankparser-upload-", ".zip");
+            bundle.addTemporaryFile(archivePath);
+            try (InputStream in = upload.openStream()) {
+                Files.copy(in, archivePath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        ZipFile archive = new ZipFile(archivePath.toFile());
+        bundle.addResource(archive);
+
+        int statements = 0;
+        Enumeration<? extends ZipEntry> entries = archive.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            if (entry.isDirectory() || !isStatementEntry(entry.getName())) {
+                continue;
+            }
+            if (++statements > maxArchiveEntries) {
+                throw new IOException("Archive " + upload.getName() + " has more than " + maxArchiveEntries + " statements");
+            }
+            StatementSource source = new ZipEntryStatementSource(upload.getName(), archive, entry, maxUncompressedSize);
+            bundle.addSource(entry.getName().toLowerCase(Locale.ROOT).endsWith(".gz")
+                    ? new GzipStatementSource(source, maxUncompressedSize)
+                    : source);
+        }
+    }
+
+    private static boolean isStatementEntry(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        String fileName = lower.substring(lower.lastIndexOf('/') + 1);
+        // skip macOS resource forks and other hidden files
+        return !fileName.startsWith(".") && !lower.startsWith("__macosx/")
+                && (lower.endsWith(".xml") || lower.endsWith(".xml.gz"));
+    }
+}
@@ -0,0 +1,71 @@
+package ch.asipiit.bankparser;
+
+import java.util.List;
+
+public class ValidationReport {
+    public static final String MODE_SCHEMA = "schema";
+    public static final String MODE_WELL_FORMED = "well-formed";
+
+    private final String mode;
+    private final String schema;
+    private final List<Diagnostic> errors;
+    private final boolean truncated;
+
+    public ValidationReport(String mode, String schema, List<Diagnostic> errors, boolean truncated) {
+        this.mode = mode;
+        this.schema = schema;
+        this.errors = errors;
+        this.truncated = truncated;
+    }
+
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    /**
+     * {@link #MODE_SCHEMA} when the document was checked against its XSD, {@link #MODE_WELL_FORMED}
+     * when no XSD is available for its namespace.
+     */
+    public String getMode() {
+        return mode;
+    }
+
+    public String getSchema() {
+        return schema;
+    }
+
+    public List<Diagnostic> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Whether validation stopped at the error limit, so the document may have further errors.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public static final class Diagnostic {
+        private final int line;
+        private final int column;
+        private final String message;
+
+        public Diagnostic(int line, int column, String message) {
+            this.line = line;
+            this.column = column;
+            this.message = message;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public int getColumn() {
+            return column;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
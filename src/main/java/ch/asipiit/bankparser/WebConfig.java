@@ -0,0 +1,28 @@
+package ch.asipiit.bankparser;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    private final AdmissionInterceptor admissionInterceptor;
+
+    @Autowired
+    public WebConfig(AdmissionInterceptor admissionInterceptor) {
+        this.admissionInterceptor = admissionInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // endpoints that parse uploads within the request; background jobs are admitted by their worker
+        registry.addInterceptor(admissionInterceptor).addPathPatterns(
+                "/api/analyze",
+                "/api/validate",
+                "/api/v1/donations/analyze-single",
+                "/api/v1/donations/analyze-multiple",
+                "/api/v1/donations/analyze-multiple/stream",
+                "/api/v1/donations/validate");
+    }
+}
@@ -0,0 +1,39 @@
+package ch.asipiit.bankparser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * One statement inside a ZIP archive. Each open inflates just this entry, so entries of the
+ * same archive can be parsed concurrently without extracting anything to disk.
+ */
+public class ZipEntryStatementSource implements StatementSource {
+    private final String archiveName;
+    private final ZipFile archive;
+    private final ZipEntry entry;
+    private final long maxUncompressedSize;
+
+    public ZipEntryStatementSource(String archiveName, ZipFile archive, ZipEntry entry, long maxUncompressedSize) {
+        this.archiveName = archiveName;
+        this.archive = archive;
+        this.entry = entry;
+        this.maxUncompressedSize = maxUncompressedSize;
+    }
+
+    @Override
+    public String getName() {
+        return archiveName + "!/" + entry.getName();
+    }
+
+    @Override
+    public long getSize() {
+        return entry.getCompressedSize();
+    }
+
+    @Override
+    public InputStream openStream() throws IOException {
+        return new SizeLimitedInputStream(archive.getInputStream(entry), maxUncompressedSize, getName());
+    }
+}
@@ -0,0 +1,60 @@
+package ch.asipiit.bankparser;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.mock.web.MockMultipartHttpServletRequest;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionInterceptorTest {
+
+    private final UploadAdmission admission = new UploadAdmission(
+            true, DataSize.ofMegabytes(8), 4, Duration.ofMillis(20), Duration.ofMillis(1500), ParserMode.STREAMING);
+    private final AdmissionInterceptor interceptor = new AdmissionInterceptor(admission);
+
+    @Test
+    void preHandle_WithinBudget_ShouldReserveUntilCompletion() throws Exception {
+        MockMultipartHttpServletRequest request = upload("statement.xml", 1024 * 1024);
+
+        assertThat(interceptor.preHandle(request, new MockHttpServletResponse(), null)).isTrue();
+        assertThat(admission.getReservedBytes()).isEqualTo(4 * 1024 * 1024);
+
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+
+        assertThat(admission.getReservedBytes()).isZero();
+    }
+
+    @Test
+    void preHandle_OverBudget_ShouldRespondWithRetryAfter() throws Exception {
+        MockMultipartHttpServletRequest first = upload("first.xml", 2 * 1024 * 1024);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(first, new MockHttpServletResponse(), null);
+
+        boolean admitted = interceptor.preHandle(upload("second.xml.gz", 1024 * 1024), response, null);
+
+        assertThat(admitted).isFalse();
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(response.getContentAsString()).contains("\"error\"");
+    }
+
+    @Test
+    void preHandle_OnRedispatch_ShouldNotReserveAgain() throws Exception {
+        MockMultipartHttpServletRequest request = upload("statement.xml", 1024);
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        long reserved = admission.getReservedBytes();
+
+        assertThat(interceptor.preHandle(request, new MockHttpServletResponse(), null)).isTrue();
+        assertThat(admission.getReservedBytes()).isEqualTo(reserved);
+    }
+
+    private MockMultipartHttpServletRequest upload(String name, int size) {
+        MockMultipartHttpServletRequest request = new MockMultipartHttpServletRequest();
+        request.addFile(new MockMultipartFile("files", name, "application/xml", new byte[size]));
+        return request;
+    }
+}
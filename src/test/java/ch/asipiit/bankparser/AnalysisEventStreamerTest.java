@@ -0,0 +1,129 @@
+package ch.asipiit.bankparser;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AnalysisEventStreamerTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    private BatchProcessingService batchProcessingService;
+    private AnalysisEventStreamer streamer;
+
+    @BeforeEach
+    void setUp() {
+        CamtProcessingService processingService = new CamtProcessingService(CamtProcessors.all(ParserMode.STREAMING));
+        batchProcessingService = new BatchProcessingService(
+                processingService, new TransactionStore(Path.of("unused"), false), 2);
+        streamer = new AnalysisEventStreamer(batchProcessingService, new DonationAnalysisService(), objectMapper);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchProcessingService.shutdown();
+    }
+
+    @Test
+    void stream_ShouldWriteFileEventsThenDonorsThenSummary() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        streamer.stream(List.of(
+                source("a.xml", camt053("John Doe", "Jane Doe")),
+                source("b.xml", "<Document xmlns=\"unsupported\"/>")
+        ), out);
+
+        List<JsonNode> events = readEvents(out);
+        assertThat(events).extracting(event -> event.get("type").asText())
+                .containsExactlyInAnyOrder("file", "file", "donor", "donor", "summary");
+        assertThat(events.subList(0, 2)).extracting(event -> event.get("type").asText()).containsOnly("file");
+        assertThat(events.subList(2, 4))
+                .extracting(event -> event.get("donor").get("name").asText())
+                .containsExactlyInAnyOrder("John Doe", "Jane Doe");
+        assertThat(events.subList(2, 4)).allSatisfy(event -> {
+            assertThat(event.get("donor").get("donationCount").asInt()).isEqualTo(1);
+            assertThat(event.get("donor").has("donations")).isFalse();
+        });
+
+        JsonNode failed = events.stream()
+                .filter(event -> event.get("type").asText().equals("file") && event.get("index").asInt() == 1)
+                .findFirst()
+                .orElseThrow();
+        assertThat(failed.get("error").asText()).isEqualTo("No processor found for this CAMT format");
+
+        JsonNode summary = events.get(4);
+        assertThat(summary.get("donorCount").asInt()).isEqualTo(2);
+        assertThat(summary.get("totalTransactionsProcessed").asLong()).isEqualTo(2);
+        assertThat(summary.get("totalDonations").decimalValue()).isEqualByComparingTo("80.00");
+    }
+
+    @Test
+    void stream_WithBrokenOutput_ShouldFailWithWriteError() {
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Connection reset");
+            }
+        };
+
+        assertThatThrownBy(() -> streamer.stream(List.of(source("a.xml", camt053("John Doe"))), broken))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Connection reset");
+    }
+
+    private List<JsonNode> readEvents(ByteArrayOutputStream out) throws IOException {
+        List<JsonNode> events = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            events.add(objectMapper.readTree(line));
+        }
+        return events;
+    }
+
+    private String camt053(String... debtors) {
+        StringBuilder xml = new StringBuilder("<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.053.001.08\">")
+                .append("<BkToCstmrStmt><Stmt>");
+        for (String debtor : debtors) {
+            xml.append("<Ntry><Amt Ccy=\"CHF\">40.00</Amt><CdtDbtInd>CRDT</CdtDbtInd>")
+                    .append("<BookgDt><Dt>2024-03-01</Dt></BookgDt>")
+                    .append("<NtryDtls><TxDtls><RltdPties><Dbtr><Pty><Nm>").append(debtor)
+                    .append("</Nm></Pty></Dbtr></RltdPties></TxDtls></NtryDtls></Ntry>");
+        }
+        return xml.append("</Stmt></BkToCstmrStmt></Document>").toString();
+    }
+
+    private StatementSource source(String name, String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return new StatementSource() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public long getSize() {
+                return bytes.length;
+            }
+
+            @Override
+            public InputStream openStream() {
+                return new ByteArrayInputStream(bytes);
+            }
+        };
+    }
+}
@@ -0,0 +1,246 @@
+package ch.asipiit.bankparser;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class AnalysisJobServiceTest {
+
+    private static final String CAMT053 = "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.053.001.08\">" +
+            "<BkToCstmrStmt><Stmt><Ntry>" +
+            "<Amt Ccy=\"CHF\">40.00</Amt><CdtDbtInd>CRDT</CdtDbtInd>" +
+            "<BookgDt><Dt>2024-03-01</Dt></BookgDt>" +
+            "<NtryDtls><TxDtls><RltdPties><Dbtr><Pty><Nm>John Doe</Nm></Pty></Dbtr></RltdPties></TxDtls></NtryDtls>" +
+            "</Ntry></Stmt></BkToCstmrStmt></Document>";
+
+    private BatchProcessingService batchProcessingService;
+    private AnalysisJobService jobService;
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+        batchProcessingService.shutdown();
+    }
+
+    @Test
+    void submit_ShouldCompleteWithAnalysisAndProgress() throws Exception {
+        jobService = createService(1, 4);
+        AtomicInteger cleanups = new AtomicInteger();
+
+        AnalysisJob job = jobService.submit(List.of(source("a.xml", null), source("b.xml", null)), cleanups::incrementAndGet);
+        awaitFinished(job);
+
+        assertThat(job.getStatus()).isEqualTo(JobStatus.COMPLETED);
+        assertThat(job.getFilesProcessed()).isEqualTo(2);
+        assertThat(job.getFileResults())
+                .extracting(FileProcessingResult::getFileName)
+                .containsExactly("a.xml", "b.xml");
+        assertThat(job.getAnalysis().getDonors())
+                .singleElement()
+                .satisfies(donor -> assertThat(donor.getName()).isEqualTo("John Doe"));
+        assertThat(job.getTransactionCount()).isEqualTo(1);
+        assertThat(jobService.getJob(job.getId())).isSameAs(job);
+        assertThat(cleanups).hasValue(1);
+    }
+
+    @Test
+    void submit_WithFullQueue_ShouldRejectAndCleanUp() throws Exception {
+        jobService = createService(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger cleanups = new AtomicInteger();
+
+        AnalysisJob running = jobService.submit(List.of(source("running.xml", release)), () -> { });
+        AnalysisJob queued = jobService.submit(List.of(source("queued.xml", release)), () -> { });
+        while (running.getStatus() == JobStatus.QUEUED) {
+            Thread.sleep(10);
+        }
+
+        assertThatThrownBy(() -> jobService.submit(List.of(source("rejected.xml", release)), cleanups::incrementAndGet))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(cleanups).hasValue(1);
+        assertThat(queued.getStatus()).isEqualTo(JobStatus.QUEUED);
+
+        release.countDown();
+        awaitFinished(running);
+        awaitFinished(queued);
+        assertThat(queued.getStatus()).isEqualTo(JobStatus.COMPLETED);
+    }
+
+    @Test
+    void cancelJob_WhileQueued_ShouldDeleteSpooledUploads() throws Exception {
+        jobService = createService(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Path> spooled = new ArrayList<>();
+        MockMultipartFile upload = new MockMultipartFile("files", "queued.xml", "application/xml",
+                CAMT053.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public void transferTo(Path dest) throws IOException {
+                spooled.add(dest);
+                super.transferTo(dest);
+            }
+        };
+
+        AnalysisJob running = jobService.submit(List.of(source("running.xml", release)), () -> { });
+        while (running.getStatus() == JobStatus.QUEUED) {
+            Thread.sleep(10);
+        }
+        AnalysisJob queued = jobService.submitUploads(List.of(upload), false);
+        assertThat(spooled).singleElement().satisfies(file -> assertThat(file).exists());
+
+        assertThat(jobService.cancelJob(queued.getId())).isTrue();
+
+        assertThat(spooled.get(0)).doesNotExist();
+        assertThat(jobService.getQueuedJobCount()).isZero();
+        assertThat(queued.getStatus()).isEqualTo(JobStatus.FAILED);
+        release.countDown();
+        awaitFinished(running);
+    }
+
+    @Test
+    void getJob_AfterResultTtl_ShouldForgetJob() throws Exception {
+        jobService = createService(1, 1, Duration.ZERO);
+
+        AnalysisJob job = jobService.submit(List.of(source("a.xml", null)), () -> { });
+        awaitFinished(job);
+        Thread.sleep(5);
+
+        assertThat(jobService.getJob(job.getId())).isNull();
+    }
+
+    @Test
+    void submit_WhileAdmissionIsFull_ShouldWaitInsteadOfFailing() throws Exception {
+        UploadAdmission admission = admission(1);
+        jobService = createService(1, 4, Duration.ofMinutes(5), admission);
+        UploadAdmission.Ticket request = admission.tryAcquire(0);
+
+        AnalysisJob job = jobService.submit(List.of(source("a.xml", null)), () -> { });
+        Thread.sleep(100);
+
+        assertThat(job.isFinished()).isFalse();
+        request.close();
+        awaitFinished(job);
+        assertThat(job.getStatus()).isEqualTo(JobStatus.COMPLETED);
+    }
+
+    @Test
+    void submit_WithoutDonations_ShouldParseIntoCachedBatches() throws Exception {
+        ParseCache parseCache = new ParseCache(true, DataSize.ofMegabytes(1));
+        CamtProcessingService processingService = spy(new CamtProcessingService(
+                CamtProcessors.all(ParserMode.STREAMING), parseCache, new SimpleMeterRegistry()));
+        jobService = createService(processingService, 1, 4, Duration.ofMinutes(5), admission(4));
+
+        AnalysisJob first = jobService.submit(List.of(source("a.xml", null)), false, () -> { });
+        awaitFinished(first);
+        AnalysisJob repeated = jobService.submit(List.of(source("a.xml", null)), false, () -> { });
+        awaitFinished(repeated);
+
+        verify(processingService, times(2)).processBatch(any());
+        verify(processingService, never()).processStatement(any());
+        assertThat(parseCache.getHits()).isEqualTo(1);
+        assertThat(repeated.getAnalysis().getDonors())
+                .singleElement()
+                .satisfies(donor -> {
+                    assertThat(donor.getTotalAmount()).isEqualByComparingTo("40.00");
+                    assertThat(donor.getDonations()).isNull();
+                });
+    }
+
+    @Test
+    void submit_WithDonations_ShouldKeepThemOnTheDonors() throws Exception {
+        jobService = createService(1, 4);
+
+        AnalysisJob job = jobService.submit(List.of(source("a.xml", null)), true, () -> { });
+        awaitFinished(job);
+
+        assertThat(job.isIncludeDonations()).isTrue();
+        assertThat(job.getAnalysis().getDonors())
+                .singleElement()
+                .satisfies(donor -> assertThat(donor.getDonations()).hasSize(1));
+    }
+
+    private AnalysisJobService createService(int workers, int queueCapacity) {
+        return createService(workers, queueCapacity, Duration.ofMinutes(5));
+    }
+
+    private AnalysisJobService createService(int workers, int queueCapacity, Duration resultTtl) {
+        return createService(workers, queueCapacity, resultTtl, admission(4));
+    }
+
+    private AnalysisJobService createService(int workers, int queueCapacity, Duration resultTtl,
+                                             UploadAdmission admission) {
+        CamtProcessingService processingService = new CamtProcessingService(CamtProcessors.all(ParserMode.STREAMING));
+        return createService(processingService, workers, queueCapacity, resultTtl, admission);
+    }
+
+    private AnalysisJobService createService(CamtProcessingService processingService, int workers, int queueCapacity,
+                                             Duration resultTtl, UploadAdmission admission) {
+        batchProcessingService = new BatchProcessingService(
+                processingService, new TransactionStore(Path.of("unused"), false), 2);
+        return new AnalysisJobService(batchProcessingService, new DonationAnalysisService(),
+                new UploadExpander(DataSize.ofMegabytes(1), 10), admission, workers, queueCapacity, resultTtl);
+    }
+
+    private UploadAdmission admission(int maxConcurrent) {
+        return new UploadAdmission(true, DataSize.ofMegabytes(64), maxConcurrent,
+                Duration.ofMillis(20), Duration.ofSeconds(5), ParserMode.STREAMING);
+    }
+
+    private void awaitFinished(AnalysisJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!job.isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(job.isFinished()).isTrue();
+    }
+
+    private StatementSource source(String name, CountDownLatch gate) {
+        byte[] bytes = CAMT053.getBytes(StandardCharsets.UTF_8);
+        return new StatementSource() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public long getSize() {
+                return bytes.length;
+            }
+
+            @Override
+            public InputStream openStream() throws InterruptedIOException {
+                if (gate != null) {
+                    try {
+                        gate.await();
+                    } catch (InterruptedException e) {
+                        throw new InterruptedIOException();
+                    }
+                }
+                return new ByteArrayInputStream(bytes);
+            }
+        };
+    }
+}
@@ -11,12 +11,14 @@ import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.Arrays;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -24,6 +26,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @ExtendWith(MockitoExtension.class)
 class BankParserControllerTest {
 
+    private static final String CAMT_054 = "urn:iso:std:iso:20022:tech:xsd:camt.054.001.08";
+
     private MockMvc mockMvc;
 
     @Mock
@@ -32,6 +36,12 @@ class BankParserControllerTest {
     @Mock
     private DonationAnalysisService analysisService;
 
+    @Mock
+    private TransactionStore transactionStore;
+
+    @Mock
+    private CamtSchemaValidator schemaValidator;
+
     @InjectMocks
     private BankParserController controller;
 
@@ -41,89 +51,66 @@ class BankParserControllerTest {
     }
 
     @Test
-    void analyzeSingleFile_WithValidCamt054_ShouldReturnAnalysis() throws Exception {
-        // Prepare test data
-        String xmlContent = "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.054.001.08\">";
+    void analyzeDonations_WithValidFile_ShouldStoreAndAnalyzeTransactions() throws Exception {
         MockMultipartFile file = new MockMultipartFile(
                 "file",
                 "test.xml",
                 MediaType.TEXT_XML_VALUE,
-                xmlContent.getBytes()
+                ("<Document xmlns=\"" + CAMT_054 + "\">").getBytes()
         );
-
-        List<Transaction> transactions = Arrays.asList(
+        List<Transaction> transactions = List.of(
                 new Transaction("John Doe", LocalDate.now(), new BigDecimal("100.00"), "REF1", TransactionType.CREDIT)
         );
 
-        when(processingService.processFile(any())).thenReturn(transactions);
-        when(analysisService.analyzeDonations(any())).thenReturn(createSampleAnalysis());
+        when(processingService.processStatement(any()))
+                .thenReturn(new ParsedStatement("CAMT.054", transactions, false));
 
-        mockMvc.perform(multipart("/api/v1/donations/analyze-single").file(file))
+        mockMvc.perform(multipart("/api/analyze").file(file))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.analysis").exists())
-                .andExpect(jsonPath("$.fileInfo.fileType").value("CAMT.054"));
+                .andExpect(jsonPath("$.fileName").value("test.xml"))
+                .andExpect(jsonPath("$.transactionsProcessed").value(1));
+
+        verify(transactionStore).append(transactions);
+        verify(analysisService).analyzeDonations(transactions);
     }
 
     @Test
-    void analyzeSingleFile_WithEmptyFile_ShouldReturnBadRequest() throws Exception {
-        MockMultipartFile file = new MockMultipartFile(
-                "file",
-                "empty.xml",
-                MediaType.TEXT_XML_VALUE,
-                new byte[0]
-        );
+    void analyzeDonations_WithEmptyFile_ShouldReturnBadRequest() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "empty.xml", MediaType.TEXT_XML_VALUE, new byte[0]);
 
-        mockMvc.perform(multipart("/api/v1/donations/analyze-single").file(file))
+        mockMvc.perform(multipart("/api/analyze").file(file))
                 .andExpect(status().isBadRequest());
     }
 
     @Test
-    void analyzeMultipleFiles_WithValidFiles_ShouldReturnCombinedAnalysis() throws Exception {
-        MockMultipartFile file1 = new MockMultipartFile(
-                "files",
-                "test1.xml",
+    void validateFile_WithSchemaErrors_ShouldReturnReport() throws Exception {
+        MockMultipartFile file = new MockMultipartFile(
+                "file",
+                "invalid.xml",
                 MediaType.TEXT_XML_VALUE,
-                "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.054.001.08\">".getBytes()
+                ("<Document xmlns=\"" + CAMT_054 + "\">").getBytes()
         );
-
-        MockMultipartFile file2 = new MockMultipartFile(
-                "files",
-                "test2.xml",
-                MediaType.TEXT_XML_VALUE,
-                "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.053.001.08\">".getBytes()
+        ValidationReport report = new ValidationReport(
+                ValidationReport.MODE_SCHEMA,
+                "camt.054.001.08.xsd",
+                List.of(new ValidationReport.Diagnostic(3, 7, "Invalid content")),
+                false
         );
 
-        List<Transaction> transactions = Arrays.asList(
-                new Transaction("John Doe", LocalDate.now(), new BigDecimal("100.00"), "REF1", TransactionType.CREDIT),
-                new Transaction("Jane Doe", LocalDate.now(), new BigDecimal("200.00"), "REF2", TransactionType.CREDIT)
+        CamtDocument document = new CamtDocument(
+                CAMT_054,
+                CamtProcessors.create("054.001.08", ParserMode.STREAMING),
+                InputStream.nullInputStream()
         );
 
-        when(processingService.processFile(any())).thenReturn(transactions);
-        when(analysisService.analyzeDonations(any())).thenReturn(createSampleAnalysis());
+        when(processingService.detectFormat(any(InputStream.class))).thenReturn(document);
+        when(schemaValidator.validate(eq(CAMT_054), any(InputStream.class))).thenReturn(report);
 
-        mockMvc.perform(multipart("/api/v1/donations/analyze-multiple")
-                        .file(file1)
-                        .file(file2))
+        mockMvc.perform(multipart("/api/validate").file(file))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.processedFiles").exists())
-                .andExpect(jsonPath("$.analysis").exists());
-    }
-
-    private DonationAnalysis createSampleAnalysis() {
-        List<Transaction> transactions = Arrays.asList(
-                new Transaction("John Doe", LocalDate.now(), new BigDecimal("100.00"), "REF1", TransactionType.CREDIT)
-        );
-
-        List<DonorSummary> donors = Arrays.asList(
-                new DonorSummary(
-                        "John Doe",
-                        new BigDecimal("100.00"),
-                        new BigDecimal("100.00"),
-                        false,
-                        transactions
-                )
-        );
-
-        return new DonationAnalysis(donors, new BigDecimal("100.00"), 0, LocalDate.now().atStartOfDay());
+                .andExpect(jsonPath("$.isValid").value(false))
+                .andExpect(jsonPath("$.validation.mode").value("schema"))
+                .andExpect(jsonPath("$.validation.errors[0].line").value(3))
+                .andExpect(jsonPath("$.validation.errors[0].message").value("Invalid content"));
     }
 }
@@ -0,0 +1,99 @@
+package ch.asipiit.bankparser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchCommandTest {
+
+    @TempDir
+    Path directory;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+    private final BatchCommand command = new BatchCommand(
+            new PrintStream(out, true, StandardCharsets.UTF_8),
+            new PrintStream(err, true, StandardCharsets.UTF_8));
+
+    @Test
+    void run_WithDirectory_ShouldWriteJsonReport() throws Exception {
+        Files.writeString(directory.resolve("march.xml"), camt053("John Doe", "40.00"));
+        Files.writeString(directory.resolve("april.xml"), camt053("Jane, Doe", "25.50"));
+        Files.writeString(directory.resolve("notes.txt"), "ignored");
+
+        int exitCode = command.run(new String[]{directory.toString()});
+
+        assertThat(exitCode).isEqualTo(BatchCommand.EXIT_OK);
+        String report = out.toString(StandardCharsets.UTF_8);
+        assertThat(report).contains("\"name\" : \"John Doe\"", "\"name\" : \"Jane, Doe\"", "\"totalDonations\" : 65.50");
+        assertThat(report).doesNotContain("\"donations\"");
+        assertThat(err.toString(StandardCharsets.UTF_8)).contains("from 2 of 2 file(s)");
+    }
+
+    @Test
+    void run_WithCsvOutputFile_ShouldWriteOneRowPerDonor() throws Exception {
+        Files.writeString(directory.resolve("march.xml"), camt053("Jane, Doe", "25.50"));
+        Path report = directory.resolve("report.csv");
+
+        int exitCode = command.run(new String[]{"--format", "csv", "--output", report.toString(), directory.toString()});
+
+        assertThat(exitCode).isEqualTo(BatchCommand.EXIT_OK);
+        assertThat(Files.readAllLines(report)).containsExactly(
+                "donor,totalAmount,monthlyAverage,donationCount,belowMinimum",
+                "\"Jane, Doe\",25.50,25.50,1,true");
+        assertThat(out.size()).isZero();
+    }
+
+    @Test
+    void run_WithUnparsableFile_ShouldReportFailureAndExitWithError() throws Exception {
+        Files.writeString(directory.resolve("good.xml"), camt053("John Doe", "40.00"));
+        Files.writeString(directory.resolve("bad.xml"), "<Document xmlns=\"urn:unknown\"/>");
+
+        int exitCode = command.run(new String[]{directory.toString()});
+
+        assertThat(exitCode).isEqualTo(BatchCommand.EXIT_FILES_FAILED);
+        assertThat(err.toString(StandardCharsets.UTF_8)).contains("bad.xml: ");
+        assertThat(out.toString(StandardCharsets.UTF_8)).contains("John Doe");
+    }
+
+    @Test
+    void run_WithoutInputs_ShouldPrintUsage() {
+        int exitCode = command.run(new String[]{"--format", "csv"});
+
+        assertThat(exitCode).isEqualTo(BatchCommand.EXIT_USAGE);
+        assertThat(err.toString(StandardCharsets.UTF_8)).contains("Usage: batch");
+    }
+
+    @Test
+    void resolveInputs_WithGlob_ShouldMatchRelativeToItsBase() throws Exception {
+        Files.createDirectories(directory.resolve("2024/03"));
+        Files.writeString(directory.resolve("2024/03/a.xml"), "");
+        Files.writeString(directory.resolve("2024/b.xml"), "");
+        Files.writeString(directory.resolve("2024/03/c.txt"), "");
+
+        List<FileStatementSource> nested = BatchCommand.resolveInputs(List.of(directory + "/**/*.xml"));
+        List<FileStatementSource> flat = BatchCommand.resolveInputs(List.of(directory + "/2024/*.xml"));
+
+        assertThat(nested).extracting(FileStatementSource::getFile)
+                .containsExactly(directory.resolve("2024/03/a.xml"), directory.resolve("2024/b.xml"));
+        assertThat(flat).extracting(FileStatementSource::getFile)
+                .containsExactly(directory.resolve("2024/b.xml"));
+    }
+
+    private static String camt053(String debtor, String amount) {
+        return "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.053.001.08\">" +
+                "<BkToCstmrStmt><Stmt><Ntry>" +
+                "<Amt Ccy=\"CHF\">" + amount + "</Amt><CdtDbtInd>CRDT</CdtDbtInd>" +
+                "<BookgDt><Dt>2024-03-01</Dt></BookgDt>" +
+                "<NtryDtls><TxDtls><RltdPties><Dbtr><Pty><Nm>" + debtor + "</Nm></Pty></Dbtr></RltdPties></TxDtls></NtryDtls>" +
+                "</Ntry></Stmt></BkToCstmrStmt></Document>";
+    }
+}
@@ -0,0 +1,194 @@
+package ch.asipiit.bankparser;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.tuple;
+
+class BatchProcessingServiceTest {
+
+    private BatchProcessingService service;
+
+    @BeforeEach
+    void setUp() {
+        CamtProcessingService processingService = new CamtProcessingService(CamtProcessors.all(ParserMode.STREAMING));
+        service = new BatchProcessingService(processingService, new TransactionStore(Path.of("unused"), false), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void analyzeFiles_ShouldKeepUploadOrder() throws Exception {
+        BatchAnalysis batch = service.analyzeFiles(Arrays.asList(
+                source("a.xml", camtXml("camt.054.001.08", "BkToCstmrDbtCdtNtfctn", "Ntfctn", 3)),
+                source("b.xml", camtXml("camt.053.001.08", "BkToCstmrStmt", "Stmt", 1)),
+                source("c.xml", camtXml("camt.054.001.08", "BkToCstmrDbtCdtNtfctn", "Ntfctn", 2))
+        ), true);
+
+        assertThat(batch.getFiles())
+                .extracting(FileProcessingResult::getFileName, FileProcessingResult::getFileType)
+                .containsExactly(
+                        tuple("a.xml", "CAMT.054"),
+                        tuple("b.xml", "CAMT.053"),
+                        tuple("c.xml", "CAMT.054")
+                );
+        assertThat(batch.getFiles())
+                .extracting(FileProcessingResult::getTransactionCount)
+                .containsExactly(3, 1, 2);
+        // b.xml and c.xml only repeat entries of a.xml
+        assertThat(batch.getTransactionCount()).isEqualTo(3);
+        assertThat(batch.getDuplicateCount()).isEqualTo(3);
+    }
+
+    @Test
+    void analyzeFiles_WithFailingFile_ShouldKeepOtherResults() throws Exception {
+        BatchAnalysis batch = service.analyzeFiles(Arrays.asList(
+                source("good.xml", camtXml("camt.053.001.08", "BkToCstmrStmt", "Stmt", 2)),
+                source("bad.xml", "<Document xmlns=\"unsupported\"/>")
+        ), false);
+        List<FileProcessingResult> results = batch.getFiles();
+
+        assertThat(results.get(0).isSuccessful()).isTrue();
+        assertThat(results.get(0).getTransactionCount()).isEqualTo(2);
+        assertThat(batch.getDonations().getDonors())
+                .singleElement()
+                .satisfies(donor -> assertThat(donor.getCount()).isEqualTo(2));
+        assertThat(results.get(1).isSuccessful()).isFalse();
+        assertThat(results.get(1).getError()).isEqualTo("No processor found for this CAMT format");
+    }
+
+    @Test
+    void analyzeFiles_WithListener_ShouldReportEveryFileWithItsIndex() throws Exception {
+        Map<Integer, String> reported = new ConcurrentHashMap<>();
+
+        service.analyzeFiles(Arrays.asList(
+                source("a.xml", camtXml("camt.053.001.08", "BkToCstmrStmt", "Stmt", 1)),
+                source("b.xml", "<Document xmlns=\"unsupported\"/>")
+        ), false, (result, index) -> reported.put(index, result.getFileName()));
+
+        assertThat(reported).containsOnly(entry(0, "a.xml"), entry(1, "b.xml"));
+    }
+
+    @Test
+    void analyzeFiles_WithOverlappingStatements_ShouldCountSharedEntriesOnce() throws Exception {
+        BatchAnalysis batch = service.analyzeFiles(Arrays.asList(
+                source("statement.xml", camtXml("camt.053.001.08", "BkToCstmrStmt", "Stmt", 3)),
+                source("notification.xml", camtXml("camt.054.001.08", "BkToCstmrDbtCdtNtfctn", "Ntfctn", 2))
+        ), true);
+
+        assertThat(batch.getTransactionCount()).isEqualTo(3);
+        assertThat(batch.getDuplicateCount()).isEqualTo(2);
+        assertThat(batch.getDonations().getDonors())
+                .singleElement()
+                .satisfies(donor -> assertThat(donor.getCount()).isEqualTo(3));
+    }
+
+    @Test
+    void analyzeFiles_WithoutRetainedDonations_ShouldCountSharedEntriesOnce() throws Exception {
+        BatchAnalysis batch = service.analyzeFiles(Arrays.asList(
+                source("statement.xml", camtXml("camt.053.001.08", "BkToCstmrStmt", "Stmt", 3)),
+                source("notification.xml", camtXml("camt.054.001.08", "BkToCstmrDbtCdtNtfctn", "Ntfctn", 2))
+        ), false);
+
+        assertThat(batch.getTransactionCount()).isEqualTo(3);
+        assertThat(batch.getDuplicateCount()).isEqualTo(2);
+        assertThat(batch.getFiles())
+                .extracting(FileProcessingResult::getFileType, FileProcessingResult::getTransactionCount)
+                .containsExactly(tuple("CAMT.053", 3), tuple("CAMT.054", 2));
+        assertThat(batch.getDonations().getDonors())
+                .singleElement()
+                .satisfies(donor -> assertThat(donor.getCount()).isEqualTo(3));
+    }
+
+    @Test
+    void analyzeFiles_WhenLaterFileFinishesFirst_ShouldFoldItWithoutWaiting() throws Exception {
+        CountDownLatch laterFileFolded = new CountDownLatch(1);
+        List<Integer> reported = new CopyOnWriteArrayList<>();
+        String notification = camtXml("camt.054.001.08", "BkToCstmrDbtCdtNtfctn", "Ntfctn", 2);
+        String statement = camtXml("camt.053.001.08", "BkToCstmrStmt", "Stmt", 3);
+
+        BatchAnalysis batch = service.analyzeFiles(Arrays.asList(
+                source("notification.xml", notification, () -> laterFileFolded.await(10, TimeUnit.SECONDS), () -> { }),
+                source("statement.xml", statement, () -> { }, () -> { })
+        ), true, (result, index) -> {
+            reported.add(index);
+            laterFileFolded.countDown();
+        });
+
+        assertThat(reported).containsExactly(1, 0);
+        assertThat(batch.getFiles())
+                .extracting(FileProcessingResult::getFileName, FileProcessingResult::getDuplicateCount)
+                .containsExactly(tuple("notification.xml", 2), tuple("statement.xml", 0));
+        assertThat(batch.getDonations().getDonors())
+                .singleElement()
+                .satisfies(donor -> assertThat(donor.getCount()).isEqualTo(3));
+    }
+
+    private String camtXml(String version, String message, String container, int entries) {
+        StringBuilder xml = new StringBuilder()
+                .append("<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:").append(version).append("\">")
+                .append("<").append(message).append("><").append(container).append(">");
+        for (int i = 0; i < entries; i++) {
+            xml.append("<Ntry><Amt Ccy=\"CHF\">10.00</Amt><CdtDbtInd>CRDT</CdtDbtInd>")
+                    .append("<BookgDt><Dt>2024-01-0").append(i + 1).append("</Dt></BookgDt></Ntry>");
+        }
+        return xml.append("</").append(container).append("></").append(message).append("></Document>").toString();
+    }
+
+    private StatementSource source(String name, String content) {
+        return source(name, content, () -> { }, () -> { });
+    }
+
+    private StatementSource source(String name, String content, Gate beforeOpen, Runnable onClose) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return new StatementSource() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public long getSize() {
+                return bytes.length;
+            }
+
+            @Override
+            public InputStream openStream() throws InterruptedIOException {
+                try {
+                    beforeOpen.pass();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                return new ByteArrayInputStream(bytes) {
+                    @Override
+                    public void close() {
+                        onClose.run();
+                    }
+                };
+            }
+        };
+    }
+
+    private interface Gate {
+        void pass() throws InterruptedException;
+    }
+}
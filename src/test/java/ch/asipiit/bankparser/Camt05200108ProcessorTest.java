@@ -0,0 +1,35 @@
+package ch.asipiit.bankparser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Camt05200108ProcessorTest {
+
+    @Test
+    void processTransactions_WithIntradayReport_ShouldMatchProwideMapping() {
+        String xml = ParserWarmup.sampleDocument("urn:iso:std:iso:20022:tech:xsd:camt.052.001.08", 3);
+
+        List<Transaction> streaming = CamtProcessors.create("052.001.08", ParserMode.STREAMING).processTransactions(xml);
+        List<Transaction> prowide = CamtProcessors.create("052.001.08", ParserMode.PROWIDE).processTransactions(xml);
+
+        assertThat(streaming).hasSize(3);
+        assertThat(streaming)
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(prowide);
+    }
+
+    @Test
+    void processFile_ShouldBeDispatchedByNamespace() {
+        CamtProcessingService service = new CamtProcessingService(List.of(
+                CamtProcessors.create("052.001.08", ParserMode.STREAMING),
+                CamtProcessors.create("053.001.08", ParserMode.STREAMING),
+                CamtProcessors.create("054.001.08", ParserMode.STREAMING)));
+        String xml = ParserWarmup.sampleDocument("urn:iso:std:iso:20022:tech:xsd:camt.052.001.08", 2);
+
+        assertThat(service.processFile(xml)).hasSize(2);
+        assertThat(service.getSupportedFormats()).first().isEqualTo("052.001.08");
+    }
+}
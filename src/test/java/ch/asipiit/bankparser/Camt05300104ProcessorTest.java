@@ -0,0 +1,52 @@
+package ch.asipiit.bankparser;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Camt05300104ProcessorTest {
+
+    @Test
+    void processTransactions_ShouldReadDebtorWithoutPartyLevel() {
+        List<Transaction> transactions = CamtProcessors.create("053.001.04", ParserMode.STREAMING)
+                .processTransactions(getCamt053v04Xml());
+
+        assertThat(transactions).hasSize(2);
+        Transaction credit = transactions.get(0);
+        assertThat(credit.getDebtorName()).isEqualTo("John Doe");
+        assertThat(credit.getDate()).isEqualTo(LocalDate.of(2019, 11, 4));
+        assertThat(credit.getAmount()).isEqualByComparingTo(new BigDecimal("60.00"));
+        assertThat(credit.getReference()).isEqualTo("RF42");
+        assertThat(credit.getType()).isEqualTo(TransactionType.CREDIT);
+        assertThat(transactions.get(1).getDebtorName()).isEqualTo("Unknown");
+    }
+
+    @Test
+    void processTransactions_ShouldMatchProwideMapping() {
+        List<Transaction> streaming = CamtProcessors.create("053.001.04", ParserMode.STREAMING).processTransactions(getCamt053v04Xml());
+        List<Transaction> prowide = CamtProcessors.create("053.001.04", ParserMode.PROWIDE).processTransactions(getCamt053v04Xml());
+
+        assertThat(streaming)
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(prowide);
+    }
+
+    private String getCamt053v04Xml() {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.053.001.04\">" +
+                "<BkToCstmrStmt><Stmt>" +
+                "<Ntry><Amt Ccy=\"CHF\">60.00</Amt><CdtDbtInd>CRDT</CdtDbtInd>" +
+                "<BookgDt><Dt>2019-11-04</Dt></BookgDt>" +
+                "<NtryDtls><TxDtls>" +
+                "<RltdPties><Dbtr><Nm>John Doe</Nm></Dbtr></RltdPties>" +
+                "<RmtInf><Strd><CdtrRefInf><Ref>RF42</Ref></CdtrRefInf></Strd></RmtInf>" +
+                "</TxDtls></NtryDtls></Ntry>" +
+                "<Ntry><Amt Ccy=\"CHF\">8.00</Amt><CdtDbtInd>DBIT</CdtDbtInd>" +
+                "<BookgDt><Dt>2019-11-05</Dt></BookgDt></Ntry>" +
+                "</Stmt></BkToCstmrStmt></Document>";
+    }
+}
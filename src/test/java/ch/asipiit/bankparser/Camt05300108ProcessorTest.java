@@ -2,7 +2,9 @@ package ch.asipiit.bankparser;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -10,11 +12,11 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 class Camt05300108ProcessorTest {
 
-    private Camt05300108Processor processor;
+    private CamtProcessor<?> processor;
 
     @BeforeEach
     void setUp() {
-        processor = new Camt05300108Processor();
+        processor = CamtProcessors.create("053.001.08", ParserMode.STREAMING);
     }
 
     @Test
@@ -50,6 +52,15 @@ class Camt05300108ProcessorTest {
                 });
     }
 
+    @Test
+    void processTransactions_WithStream_ShouldReturnTransactions() {
+        byte[] validXml = getValidCamt053Xml().getBytes(StandardCharsets.UTF_8);
+
+        List<Transaction> transactions = processor.processTransactions(new ByteArrayInputStream(validXml));
+
+        assertThat(transactions).hasSize(1);
+    }
+
     private String getValidCamt053Xml() {
         // Create a minimal valid CAMT.053 XML for testing
         return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
@@ -10,11 +10,11 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 class Camt05400108ProcessorTest {
 
-    private Camt05400108Processor processor;
+    private CamtProcessor<?> processor;
 
     @BeforeEach
     void setUp() {
-        processor = new Camt05400108Processor();
+        processor = CamtProcessors.create("054.001.08", ParserMode.STREAMING);
     }
 
     @Test
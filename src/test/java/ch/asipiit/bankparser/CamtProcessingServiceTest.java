@@ -1,33 +1,42 @@
 package ch.asipiit.bankparser;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class CamtProcessingServiceTest {
 
     @Mock
-    private Camt05300108Processor camt053Processor;
+    private CamtProcessor<?> camt053Processor;
 
     @Mock
-    private Camt05400108Processor camt054Processor;
+    private CamtProcessor<?> camt054Processor;
 
     private CamtProcessingService service;
 
     @BeforeEach
     void setUp() {
+        when(camt053Processor.getNamespace()).thenReturn("urn:iso:std:iso:20022:tech:xsd:camt.053.001.08");
+        when(camt054Processor.getNamespace()).thenReturn("urn:iso:std:iso:20022:tech:xsd:camt.054.001.08");
+        when(camt053Processor.getFormatVersion()).thenReturn("053.001.08");
+        when(camt054Processor.getFormatVersion()).thenReturn("054.001.08");
         service = new CamtProcessingService(Arrays.asList(camt053Processor, camt054Processor));
     }
 
@@ -38,7 +47,6 @@ class CamtProcessingServiceTest {
                 new Transaction("John Doe", LocalDate.now(), new BigDecimal("100.00"), "REF1", TransactionType.CREDIT)
         );
 
-        when(camt053Processor.canProcess(xmlContent)).thenReturn(true);
         when(camt053Processor.processTransactions(xmlContent)).thenReturn(expectedTransactions);
 
         List<Transaction> result = service.processFile(xmlContent);
@@ -53,7 +61,6 @@ class CamtProcessingServiceTest {
                 new Transaction("Jane Doe", LocalDate.now(), new BigDecimal("200.00"), "REF2", TransactionType.CREDIT)
         );
 
-        when(camt054Processor.canProcess(xmlContent)).thenReturn(true);
         when(camt054Processor.processTransactions(xmlContent)).thenReturn(expectedTransactions);
 
         List<Transaction> result = service.processFile(xmlContent);
@@ -61,27 +68,136 @@ class CamtProcessingServiceTest {
         assertThat(result).isEqualTo(expectedTransactions);
     }
 
+    @Test
+    void processFile_WithStream_ShouldDispatchOnProlog() throws Exception {
+        String xmlContent = "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.054.001.08\">";
+        List<Transaction> expectedTransactions = Arrays.asList(
+                new Transaction("Jane Doe", LocalDate.now(), new BigDecimal("200.00"), "REF2", TransactionType.CREDIT)
+        );
+
+        when(camt054Processor.processTransactions(any(InputStream.class))).thenReturn(expectedTransactions);
+
+        List<Transaction> result = service.processFile(
+                new ByteArrayInputStream(xmlContent.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(result).isEqualTo(expectedTransactions);
+    }
+
     @Test
     void processFile_WithUnsupportedFormat_ShouldThrowException() {
         String xmlContent = "<Document xmlns=\"unsupported\">";
 
-        when(camt053Processor.canProcess(xmlContent)).thenReturn(false);
-        when(camt054Processor.canProcess(xmlContent)).thenReturn(false);
-
         assertThatThrownBy(() -> service.processFile(xmlContent))
                 .isInstanceOf(UnsupportedCamtFormatException.class)
                 .hasMessage("No processor found for this CAMT format");
     }
 
     @Test
-    void getSupportedFormats_ShouldReturnAllFormats() {
-        when(camt053Processor.getFormatVersion()).thenReturn("053.001.08");
-        when(camt054Processor.getFormatVersion()).thenReturn("054.001.08");
+    void detectFormat_ShouldReadRootNamespaceAndKeepContent() throws Exception {
+        String xmlContent = "<?xml version=\"1.0\"?><Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.053.001.08\"></Document>";
+
+        CamtDocument document = service.detectFormat(
+                new ByteArrayInputStream(xmlContent.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(document.isSupported()).isTrue();
+        assertThat(document.getProcessor()).isSameAs(camt053Processor);
+        assertThat(document.getFileType()).isEqualTo("CAMT.053");
+        assertThat(new String(document.getContent().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(xmlContent);
+    }
+
+    @Test
+    void detectFormat_WithLongLeadingComment_ShouldFindRootBeyondFirstBlock() throws Exception {
+        String xmlContent = "<?xml version=\"1.0\"?><!--" + "x".repeat(20_000) + "--><?export tool=\"bank\"?>"
+                + "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.054.001.08\"></Document>";
+
+        CamtDocument document = service.detectFormat(
+                new ByteArrayInputStream(xmlContent.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(document.getProcessor()).isSameAs(camt054Processor);
+        assertThat(new String(document.getContent().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(xmlContent);
+    }
+
+    @Test
+    void detectFormat_WithPrologBeyondLimit_ShouldNotMatchButKeepContent() throws Exception {
+        String xmlContent = "<!--" + "x".repeat(300_000) + "-->"
+                + "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.054.001.08\"></Document>";
+
+        CamtDocument document = service.detectFormat(
+                new ByteArrayInputStream(xmlContent.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(document.isSupported()).isFalse();
+        assertThat(new String(document.getContent().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(xmlContent);
+    }
+
+    @Test
+    void detectFormat_WithNamespaceOnlyInBody_ShouldNotMatch() throws Exception {
+        String xmlContent = "<Document xmlns=\"other\"><Note>urn:iso:std:iso:20022:tech:xsd:camt.053.001.08</Note></Document>";
+
+        CamtDocument document = service.detectFormat(
+                new ByteArrayInputStream(xmlContent.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(document.isSupported()).isFalse();
+        assertThat(document.getFileType()).isEqualTo("Unknown");
+    }
+
+    @Test
+    void processStatement_ShouldRecordMetricsPerFormat() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CamtProcessingService instrumented = new CamtProcessingService(
+                Arrays.asList(camt053Processor, camt054Processor), ParseCache.disabled(), registry);
+        when(camt054Processor.processTransactions(any(InputStream.class))).thenReturn(Arrays.asList(
+                new Transaction("Jane Doe", LocalDate.now(), new BigDecimal("200.00"), "REF2", TransactionType.CREDIT)
+        ));
+
+        instrumented.processStatement(source("<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.054.001.08\"/>"));
+
+        assertThat(registry.get("bankparser.statement.parse").tag("format", "054.001.08").timer().count()).isEqualTo(1);
+        assertThat(registry.get("bankparser.statement.transactions").tag("format", "054.001.08").summary().totalAmount())
+                .isEqualTo(1.0);
+        assertThat(registry.get("bankparser.upload.size").summary().count()).isEqualTo(1);
+        assertThat(registry.get("bankparser.detect").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void processStatement_WithUnsupportedFormat_ShouldCountFailureByExceptionType() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CamtProcessingService instrumented = new CamtProcessingService(
+                Arrays.asList(camt053Processor, camt054Processor), ParseCache.disabled(), registry);
+
+        assertThatThrownBy(() -> instrumented.processStatement(source("<Document xmlns=\"unsupported\"/>")))
+                .isInstanceOf(UnsupportedCamtFormatException.class);
+        assertThat(registry.get("bankparser.statement.failures")
+                .tag("exception", "UnsupportedCamtFormatException")
+                .counter()
+                .count()).isEqualTo(1.0);
+    }
 
+    @Test
+    void getSupportedFormats_ShouldReturnAllFormats() {
         List<String> formats = service.getSupportedFormats();
 
         assertThat(formats)
                 .hasSize(2)
                 .contains("053.001.08", "054.001.08");
     }
-}
\ No newline at end of file
+
+    private StatementSource source(String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return new StatementSource() {
+            @Override
+            public String getName() {
+                return "statement.xml";
+            }
+
+            @Override
+            public long getSize() {
+                return bytes.length;
+            }
+
+            @Override
+            public InputStream openStream() {
+                return new ByteArrayInputStream(bytes);
+            }
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package ch.asipiit.bankparser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CamtProcessorRegistryTest {
+
+    @Test
+    void find_ShouldResolveProcessorByNamespace() {
+        CamtProcessor<?> camt053v04 = CamtProcessors.create("053.001.04", ParserMode.STREAMING);
+        CamtProcessor<?> camt053v08 = CamtProcessors.create("053.001.08", ParserMode.STREAMING);
+        CamtProcessorRegistry registry = new CamtProcessorRegistry(List.of(camt053v08, camt053v04));
+
+        assertThat(registry.find("urn:iso:std:iso:20022:tech:xsd:camt.053.001.04")).isSameAs(camt053v04);
+        assertThat(registry.find("urn:iso:std:iso:20022:tech:xsd:camt.053.001.08")).isSameAs(camt053v08);
+        assertThat(registry.find("urn:iso:std:iso:20022:tech:xsd:camt.053.001.02")).isNull();
+        assertThat(registry.find(null)).isNull();
+    }
+
+    @Test
+    void getSupportedFormats_ShouldListVersionsInOrder() {
+        CamtProcessorRegistry registry = new CamtProcessorRegistry(List.of(
+                CamtProcessors.create("054.001.08", ParserMode.STREAMING),
+                CamtProcessors.create("052.001.08", ParserMode.STREAMING),
+                CamtProcessors.create("054.001.04", ParserMode.STREAMING),
+                CamtProcessors.create("053.001.08", ParserMode.STREAMING),
+                CamtProcessors.create("053.001.04", ParserMode.STREAMING)));
+
+        assertThat(registry.getSupportedFormats())
+                .containsExactly("052.001.08", "053.001.04", "053.001.08", "054.001.04", "054.001.08");
+        assertThat(registry.getProcessors()).hasSize(5);
+    }
+
+    @Test
+    void constructor_WithDuplicateNamespace_ShouldFail() {
+        assertThatThrownBy(() -> new CamtProcessorRegistry(List.of(
+                CamtProcessors.create("053.001.08", ParserMode.STREAMING),
+                CamtProcessors.create("053.001.08", ParserMode.PROWIDE))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("camt.053.001.08");
+    }
+}
@@ -0,0 +1,110 @@
+package ch.asipiit.bankparser;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CamtSchemaValidatorTest {
+
+    private static final String CAMT_053 = "urn:iso:std:iso:20022:tech:xsd:camt.053.001.08";
+    private static final String CAMT_054 = "urn:iso:std:iso:20022:tech:xsd:camt.054.001.08";
+
+    private final CamtSchemaValidator validator = new CamtSchemaValidator("test-xsd", 2);
+
+    @Test
+    void validate_WithValidDocument_ShouldUseSchema() throws Exception {
+        ValidationReport report = validate(CAMT_053, statement(entry("100.00", "2024-03-01")));
+
+        assertThat(report.isValid()).isTrue();
+        assertThat(report.getMode()).isEqualTo(ValidationReport.MODE_SCHEMA);
+        assertThat(report.getSchema()).isEqualTo("camt.053.001.08.xsd");
+    }
+
+    @Test
+    void validate_WithSchemaErrors_ShouldReportPositionsUpToLimit() throws Exception {
+        String xml = statement(entry("abc", "2024-03-01") + "\n" + entry("1.00", "01.03.2024") + "\n" + entry("x", "y"));
+
+        // an invalid simple value is reported as two errors, for its datatype and its element
+        ValidationReport report = new CamtSchemaValidator("test-xsd", 3)
+                .validate(CAMT_053, new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(report.isValid()).isFalse();
+        assertThat(report.isTruncated()).isTrue();
+        assertThat(report.getErrors())
+                .extracting(ValidationReport.Diagnostic::getLine)
+                .containsExactly(2, 2, 3);
+        assertThat(report.getErrors().get(0).getColumn()).isPositive();
+        assertThat(report.getErrors().get(0).getMessage()).contains("abc");
+    }
+
+    @Test
+    void validate_WithoutSchema_ShouldCheckWellFormedness() throws Exception {
+        String wellFormed = "<Document xmlns=\"" + CAMT_054 + "\"><Anything/></Document>";
+        String broken = "<Document xmlns=\"" + CAMT_054 + "\">\n<Ntry></Amt></Document>";
+
+        ValidationReport valid = validate(CAMT_054, wellFormed);
+        ValidationReport invalid = validate(CAMT_054, broken);
+
+        assertThat(valid.isValid()).isTrue();
+        assertThat(valid.getMode()).isEqualTo(ValidationReport.MODE_WELL_FORMED);
+        assertThat(invalid.isTruncated()).isFalse();
+        assertThat(invalid.getErrors())
+                .extracting(ValidationReport.Diagnostic::getLine)
+                .containsExactly(2);
+    }
+
+    @Test
+    void validate_WithDoctype_ShouldReject() throws Exception {
+        String xml = "<?xml version=\"1.0\"?><!DOCTYPE Document [<!ENTITY x \"y\">]><Document xmlns=\"" + CAMT_054 + "\"/>";
+
+        ValidationReport report = validate(CAMT_054, xml);
+
+        assertThat(report.isValid()).isFalse();
+        assertThat(report.getErrors()).hasSize(1);
+    }
+
+    @Test
+    void hasSchema_ShouldOnlyBeTrueForNamespacesWithXsd() {
+        assertThat(validator.hasSchema(CAMT_053)).isTrue();
+        assertThat(validator.hasSchema(CAMT_054)).isFalse();
+        assertThat(validator.hasSchema("unsupported")).isFalse();
+    }
+
+    @Test
+    void constructor_WithProcessorLackingSchema_ShouldFailUnlessOptedOut() {
+        CamtProcessorRegistry registry = new CamtProcessorRegistry(List.of(
+                CamtProcessors.create("053.001.08", ParserMode.STREAMING),
+                CamtProcessors.create("054.001.08", ParserMode.STREAMING)));
+
+        assertThatThrownBy(() -> new CamtSchemaValidator("test-xsd", 2, true, registry))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(CAMT_054)
+                .hasMessageNotContaining(CAMT_053);
+        assertThat(new CamtSchemaValidator("test-xsd", 2, false, registry).hasSchema(CAMT_054)).isFalse();
+    }
+
+    @Test
+    void constructor_WithSchemaForEveryProcessor_ShouldStart() {
+        CamtProcessorRegistry registry = new CamtProcessorRegistry(List.of(
+                CamtProcessors.create("053.001.08", ParserMode.STREAMING)));
+
+        assertThat(new CamtSchemaValidator("test-xsd", 2, true, registry).hasSchema(CAMT_053)).isTrue();
+    }
+
+    private ValidationReport validate(String namespace, String xml) throws Exception {
+        return validator.validate(namespace, new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String statement(String entries) {
+        return "<Document xmlns=\"" + CAMT_053 + "\">\n<BkToCstmrStmt><Stmt>" + entries + "</Stmt></BkToCstmrStmt></Document>";
+    }
+
+    private static String entry(String amount, String date) {
+        return "<Ntry><Amt>" + amount + "</Amt><BookgDt>" + date + "</BookgDt></Ntry>";
+    }
+}
@@ -0,0 +1,64 @@
+package ch.asipiit.bankparser;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DonationAccumulatorTest {
+
+    private final DonationAnalysisService analysisService = new DonationAnalysisService();
+
+    @Test
+    void merge_ShouldMatchSinglePassAnalysis() {
+        List<Transaction> firstFile = Arrays.asList(
+                new Transaction("John Doe", LocalDate.of(2024, 1, 5), new BigDecimal("50.00"), "REF1", TransactionType.CREDIT),
+                new Transaction("Jane Doe", LocalDate.of(2024, 1, 7), new BigDecimal("20.00"), "REF2", TransactionType.CREDIT),
+                new Transaction("Bank", LocalDate.of(2024, 1, 9), new BigDecimal("5.00"), "FEE", TransactionType.DEBIT)
+        );
+        List<Transaction> secondFile = Arrays.asList(
+                new Transaction("John Doe", LocalDate.of(2024, 3, 5), new BigDecimal("40.00"), "REF3", TransactionType.CREDIT),
+                new Transaction("Ali Bey", LocalDate.of(2024, 3, 8), new BigDecimal("35.00"), "REF4", TransactionType.CREDIT)
+        );
+
+        DonationAccumulator merged = new DonationAccumulator().addAll(firstFile)
+                .merge(new DonationAccumulator().addAll(secondFile));
+        DonationAnalysis fromMerged = analysisService.summarize(merged);
+
+        List<Transaction> all = new ArrayList<>(firstFile);
+        all.addAll(secondFile);
+        DonationAnalysis fromSinglePass = analysisService.analyzeDonations(all);
+
+        assertThat(merged.getTransactionCount()).isEqualTo(5);
+        assertThat(fromMerged.getTotalDonations()).isEqualByComparingTo(fromSinglePass.getTotalDonations());
+        assertThat(fromMerged.getDonorsBelowMinimum()).isEqualTo(fromSinglePass.getDonorsBelowMinimum());
+        assertThat(fromMerged.getDonors())
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(fromSinglePass.getDonors());
+    }
+
+    @Test
+    void merge_WithoutRetainedDonations_ShouldKeepTotalsOnly() {
+        DonationAccumulator accumulator = new DonationAccumulator(false).addAll(List.of(
+                new Transaction("John Doe", LocalDate.of(2024, 1, 5), new BigDecimal("50.00"), "REF1", TransactionType.CREDIT)
+        ));
+        accumulator.merge(new DonationAccumulator(false).addAll(List.of(
+                new Transaction("John Doe", LocalDate.of(2024, 2, 5), new BigDecimal("10.00"), "REF2", TransactionType.CREDIT)
+        )));
+
+        DonationAnalysis analysis = analysisService.summarize(accumulator);
+
+        assertThat(analysis.getDonors())
+                .singleElement()
+                .satisfies(donor -> {
+                    assertThat(donor.getTotalAmount()).isEqualByComparingTo(new BigDecimal("60.00"));
+                    assertThat(donor.getMonthlyAverage()).isEqualByComparingTo(new BigDecimal("30.00"));
+                    assertThat(donor.getDonations()).isNull();
+                });
+    }
+}
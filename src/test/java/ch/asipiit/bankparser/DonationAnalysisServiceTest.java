@@ -77,4 +77,72 @@ class DonationAnalysisServiceTest {
                 .extracting("monthlyAverage")
                 .allMatch(avg -> ((BigDecimal) avg).compareTo(new BigDecimal("30.00")) == 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    void summarize_WithBatch_ShouldMatchAnalyzeDonations() {
+        List<Transaction> transactions = Arrays.asList(
+                new Transaction("John Doe", LocalDate.of(2024, 1, 15), new BigDecimal("100.00"), "REF1", TransactionType.CREDIT),
+                new Transaction("John Doe", LocalDate.of(2024, 3, 2), new BigDecimal("35.55"), "REF2", TransactionType.CREDIT),
+                new Transaction("Jane Doe", LocalDate.of(2024, 2, 1), new BigDecimal("20.00"), "REF3", TransactionType.CREDIT),
+                new Transaction("Bank", LocalDate.of(2024, 2, 1), new BigDecimal("5.00"), "FEE", TransactionType.DEBIT)
+        );
+
+        DonationAnalysis expected = service.analyzeDonations(transactions);
+        DonationAnalysis actual = service.summarize(new DonationAccumulator(false).addAll(TransactionBatch.from(transactions)));
+
+        assertThat(actual.getTotalDonations()).isEqualByComparingTo(expected.getTotalDonations());
+        assertThat(actual.getDonorsBelowMinimum()).isEqualTo(expected.getDonorsBelowMinimum());
+        assertThat(actual.getDonors())
+                .extracting(DonorSummary::getName, DonorSummary::getTotalAmount, DonorSummary::getMonthlyAverage,
+                        DonorSummary::isBelowMinimum, DonorSummary::getDonationCount)
+                .containsExactlyInAnyOrderElementsOf(expected.getDonors().stream()
+                        .map(donor -> tuple(donor.getName(), donor.getTotalAmount(), donor.getMonthlyAverage(),
+                                donor.isBelowMinimum(), donor.getDonationCount()))
+                        .toList());
+    }
+
+    @Test
+    void analyzeMonthly_ShouldMatchAnalyzeDonations() {
+        List<Transaction> transactions = Arrays.asList(
+                new Transaction("John Doe", LocalDate.of(2024, 1, 15), new BigDecimal("100.00"), "REF1", TransactionType.CREDIT),
+                new Transaction("John Doe", LocalDate.of(2024, 3, 2), new BigDecimal("35.55"), "REF2", TransactionType.CREDIT),
+                new Transaction("Jane Doe", LocalDate.of(2024, 2, 1), new BigDecimal("20.00"), "REF3", TransactionType.CREDIT),
+                new Transaction("Bank", LocalDate.of(2024, 2, 1), new BigDecimal("5.00"), "FEE", TransactionType.DEBIT)
+        );
+        DonationRollup rollup = new DonationRollup();
+        rollup.addAll(TransactionBatch.from(transactions));
+
+        DonationAnalysis expected = service.analyzeDonations(transactions);
+        DonationAnalysis actual = service.analyzeMonthly(rollup.findDonors(null, null));
+
+        assertThat(actual.getTotalDonations()).isEqualByComparingTo(expected.getTotalDonations());
+        assertThat(actual.getDonorsBelowMinimum()).isEqualTo(expected.getDonorsBelowMinimum());
+        assertThat(actual.getDonors())
+                .extracting(DonorSummary::getName, DonorSummary::getTotalAmount, DonorSummary::getMonthlyAverage,
+                        DonorSummary::isBelowMinimum, DonorSummary::getDonationCount)
+                .containsExactlyInAnyOrderElementsOf(expected.getDonors().stream()
+                        .map(donor -> tuple(donor.getName(), donor.getTotalAmount(), donor.getMonthlyAverage(),
+                                donor.isBelowMinimum(), donor.getDonationCount()))
+                        .toList());
+    }
+
+    @Test
+    void withDonations_ShouldAttachEachDonorsCredits() {
+        List<Transaction> transactions = Arrays.asList(
+                new Transaction("John Doe", LocalDate.of(2024, 1, 15), new BigDecimal("100.00"), "REF1", TransactionType.CREDIT),
+                new Transaction("Jane Doe", LocalDate.of(2024, 2, 1), new BigDecimal("20.00"), "REF2", TransactionType.CREDIT),
+                new Transaction("John Doe", LocalDate.of(2024, 2, 3), new BigDecimal("5.00"), "FEE", TransactionType.DEBIT)
+        );
+        DonationRollup rollup = new DonationRollup();
+        rollup.addAll(TransactionBatch.from(transactions));
+        DonationAnalysis monthly = service.analyzeMonthly(rollup.findDonors(null, null));
+
+        DonationAnalysis analysis = service.withDonations(monthly, transactions.subList(1, 3));
+
+        assertThat(monthly.getDonors()).allMatch(donor -> donor.getDonations() == null);
+        assertThat(analysis.getTotalDonations()).isEqualByComparingTo(monthly.getTotalDonations());
+        assertThat(analysis.getDonors())
+                .extracting(DonorSummary::getName, donor -> donor.getDonations().size())
+                .containsExactly(tuple("John Doe", 0), tuple("Jane Doe", 1));
+    }
+}
@@ -0,0 +1,221 @@
+package ch.asipiit.bankparser;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class DonationControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private CamtProcessingService processingService;
+
+    @Mock
+    private DonationAnalysisService analysisService;
+
+    @Mock
+    private BatchProcessingService batchProcessingService;
+
+    @Mock
+    private TransactionStore transactionStore;
+
+    @Mock
+    private AnalysisJobService jobService;
+
+    @Mock
+    private AnalysisEventStreamer eventStreamer;
+
+    @Mock
+    private DonorQueryService donorQueryService;
+
+    @Spy
+    private UploadExpander uploadExpander = new UploadExpander(DataSize.ofMegabytes(1), 10);
+
+    @InjectMocks
+    private DonationController controller;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void analyzeSingleFile_WithValidCamt054_ShouldReturnAnalysis() throws Exception {
+        // Prepare test data
+        String xmlContent = "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.054.001.08\">";
+        MockMultipartFile file = new MockMultipartFile(
+                "file",
+                "test.xml",
+                MediaType.TEXT_XML_VALUE,
+                xmlContent.getBytes()
+        );
+
+        List<Transaction> transactions = Arrays.asList(
+                new Transaction("John Doe", LocalDate.now(), new BigDecimal("100.00"), "REF1", TransactionType.CREDIT)
+        );
+
+        when(processingService.processStatement(any(StatementSource.class)))
+                .thenReturn(new ParsedStatement("CAMT.054", transactions, false));
+        when(analysisService.analyzeDonations(any())).thenReturn(createSampleAnalysis());
+
+        mockMvc.perform(multipart("/api/v1/donations/analyze-single").file(file))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.analysis").exists())
+                .andExpect(jsonPath("$.fileInfo.fileType").value("CAMT.054"));
+    }
+
+    @Test
+    void analyzeSingleFile_WithEmptyFile_ShouldReturnBadRequest() throws Exception {
+        MockMultipartFile file = new MockMultipartFile(
+                "file",
+                "empty.xml",
+                MediaType.TEXT_XML_VALUE,
+                new byte[0]
+        );
+
+        mockMvc.perform(multipart("/api/v1/donations/analyze-single").file(file))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void analyzeMultipleFiles_WithValidFiles_ShouldReturnCombinedAnalysis() throws Exception {
+        MockMultipartFile file1 = new MockMultipartFile(
+                "files",
+                "test1.xml",
+                MediaType.TEXT_XML_VALUE,
+                "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.054.001.08\">".getBytes()
+        );
+
+        MockMultipartFile file2 = new MockMultipartFile(
+                "files",
+                "test2.xml",
+                MediaType.TEXT_XML_VALUE,
+                "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.053.001.08\">".getBytes()
+        );
+
+        List<Transaction> transactions = Arrays.asList(
+                new Transaction("John Doe", LocalDate.now(), new BigDecimal("100.00"), "REF1", TransactionType.CREDIT),
+                new Transaction("Jane Doe", LocalDate.now(), new BigDecimal("200.00"), "REF2", TransactionType.CREDIT)
+        );
+
+        when(batchProcessingService.analyzeFiles(any(), eq(true))).thenReturn(new BatchAnalysis(
+                Arrays.asList(
+                        new FileProcessingResult("test1.xml", 10, "CAMT.054", 1, null),
+                        new FileProcessingResult("test2.xml", 10, "CAMT.053", 1, null)
+                ),
+                new DonationAccumulator().addAll(transactions)
+        ));
+        when(analysisService.summarize(any())).thenReturn(createSampleAnalysis());
+
+        mockMvc.perform(multipart("/api/v1/donations/analyze-multiple")
+                        .file(file1)
+                        .file(file2))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processedFiles[0].fileName").value("test1.xml"))
+                .andExpect(jsonPath("$.processedFiles[1].fileType").value("CAMT.053"))
+                .andExpect(jsonPath("$.totalTransactionsProcessed").value(2))
+                .andExpect(jsonPath("$.analysis").exists());
+    }
+
+    @Test
+    void submitJob_ShouldReturnAcceptedWithJobId() throws Exception {
+        MockMultipartFile file = new MockMultipartFile(
+                "files",
+                "test1.xml",
+                MediaType.TEXT_XML_VALUE,
+                "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.054.001.08\">".getBytes()
+        );
+        when(jobService.submitUploads(any(), eq(false))).thenReturn(new AnalysisJob("job-1", List.of("test1.xml"), false));
+
+        mockMvc.perform(multipart("/api/v1/donations/jobs").file(file))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.jobId").value("job-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andExpect(jsonPath("$.totalFiles").value(1));
+    }
+
+    @Test
+    void getJobResult_WhileRunning_ShouldReturnConflict() throws Exception {
+        AnalysisJob job = new AnalysisJob("job-1", List.of("test1.xml"), false);
+        job.start();
+        when(jobService.getJob("job-1")).thenReturn(job);
+
+        mockMvc.perform(get("/api/v1/donations/jobs/job-1/result"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void queryJobDonors_ShouldReturnRequestedPage() throws Exception {
+        AnalysisJob job = new AnalysisJob("job-1", List.of("test1.xml"), false);
+        DonationAccumulator donations = new DonationAccumulator();
+        job.complete(new BatchAnalysis(List.of(), donations), createSampleAnalysis());
+        when(jobService.getJob("job-1")).thenReturn(job);
+        when(donorQueryService.query(any(), any())).thenReturn(new DonorPage(
+                List.of(createSampleAnalysis().getDonors().get(0).withoutDonations()), 1, 10, 11));
+
+        mockMvc.perform(get("/api/v1/donations/jobs/job-1/donors").param("page", "1").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.donors[0].name").value("John Doe"))
+                .andExpect(jsonPath("$.donors[0].donations").doesNotExist())
+                .andExpect(jsonPath("$.donors[0].donationCount").value(1))
+                .andExpect(jsonPath("$.totalPages").value(2));
+    }
+
+    @Test
+    void getJobDonorDonations_WithoutIncludedDonations_ShouldReturnConflict() throws Exception {
+        AnalysisJob job = new AnalysisJob("job-1", List.of("test1.xml"), false);
+        job.complete(new BatchAnalysis(List.of(), new DonationAccumulator(false)), createSampleAnalysis());
+        when(jobService.getJob("job-1")).thenReturn(job);
+
+        mockMvc.perform(get("/api/v1/donations/jobs/job-1/donors/John Doe/donations"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Job was submitted without includeDonations=true"));
+    }
+
+    @Test
+    void getJobStatus_WithUnknownJob_ShouldReturnNotFound() throws Exception {
+        mockMvc.perform(get("/api/v1/donations/jobs/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    private DonationAnalysis createSampleAnalysis() {
+        List<Transaction> transactions = Arrays.asList(
+                new Transaction("John Doe", LocalDate.now(), new BigDecimal("100.00"), "REF1", TransactionType.CREDIT)
+        );
+
+        List<DonorSummary> donors = Arrays.asList(
+                new DonorSummary(
+                        "John Doe",
+                        new BigDecimal("100.00"),
+                        new BigDecimal("100.00"),
+                        false,
+                        transactions
+                )
+        );
+
+        return new DonationAnalysis(donors, new BigDecimal("100.00"), 0, LocalDate.now().atStartOfDay());
+    }
+}
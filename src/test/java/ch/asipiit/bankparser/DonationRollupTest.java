@@ -0,0 +1,60 @@
+package ch.asipiit.bankparser;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class DonationRollupTest {
+
+    private final DonationRollup rollup = new DonationRollup();
+
+    @Test
+    void findDonors_ShouldSumDonationsPerMonth() {
+        add("John Doe", "2024-03-05", 5000, true);
+        add("John Doe", "2024-03-20", 2500, true);
+        add("John Doe", "2024-01-10", 1000, true);
+        add("John Doe", "2024-02-01", 999, false);
+        add("Jane Doe", "2023-12-31", 3000, true);
+
+        assertThat(rollup.findDonors(null, null))
+                .extracting(DonorMonths::getName, DonorMonths::getFirstMonth, DonorMonths::getLastMonth,
+                        DonorMonths::getTotal, DonorMonths::getCount)
+                .containsExactly(
+                        tuple("John Doe", YearMonth.of(2024, 1), YearMonth.of(2024, 3), new BigDecimal("85.00"), 3),
+                        tuple("Jane Doe", YearMonth.of(2023, 12), YearMonth.of(2023, 12), new BigDecimal("30.00"), 1));
+        assertThat(rollup.findDonors(null, null).get(0).getMonths())
+                .extracting(DonorMonths.MonthTotal::getMonth, DonorMonths.MonthTotal::getTotal, DonorMonths.MonthTotal::getCount)
+                .containsExactly(
+                        tuple(YearMonth.of(2024, 1), new BigDecimal("10.00"), 1),
+                        tuple(YearMonth.of(2024, 2), new BigDecimal("0.00"), 0),
+                        tuple(YearMonth.of(2024, 3), new BigDecimal("75.00"), 2));
+        assertThat(rollup.countTransactions(null, null)).isEqualTo(5);
+    }
+
+    @Test
+    void findDonors_WithWindow_ShouldTrimToMonthsWithDonations() {
+        add("John Doe", "2023-11-15", 1000, true);
+        add("John Doe", "2024-02-15", 2000, true);
+        add("John Doe", "2024-06-15", 4000, true);
+
+        assertThat(rollup.findDonors(YearMonth.of(2023, 12), YearMonth.of(2024, 5)))
+                .singleElement()
+                .satisfies(donor -> {
+                    assertThat(donor.getFirstMonth()).isEqualTo(YearMonth.of(2024, 2));
+                    assertThat(donor.getLastMonth()).isEqualTo(YearMonth.of(2024, 2));
+                    assertThat(donor.getTotal()).isEqualByComparingTo("20.00");
+                });
+        assertThat(rollup.findDonors(YearMonth.of(2024, 3), YearMonth.of(2024, 5))).isEmpty();
+        assertThat(rollup.findDonors(YearMonth.of(2025, 1), null)).isEmpty();
+        assertThat(rollup.countTransactions(YearMonth.of(2024, 1), null)).isEqualTo(2);
+    }
+
+    private void add(String donor, String date, long amountMinor, boolean credit) {
+        rollup.add(donor, (int) LocalDate.parse(date).toEpochDay(), amountMinor, credit);
+    }
+}
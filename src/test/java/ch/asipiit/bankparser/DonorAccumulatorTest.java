@@ -0,0 +1,54 @@
+package ch.asipiit.bankparser;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DonorAccumulatorTest {
+
+    @Test
+    void add_ShouldTrackTotalAndMonthRange() {
+        DonorAccumulator accumulator = new DonorAccumulator("John Doe");
+
+        accumulator.add(donation(LocalDate.of(2024, 3, 15), "40.00"));
+        accumulator.add(donation(LocalDate.of(2024, 1, 31), "20.00"));
+        accumulator.add(donation(LocalDate.of(2024, 2, 1), "30.00"));
+
+        assertThat(accumulator.getTotal()).isEqualByComparingTo(new BigDecimal("90.00"));
+        assertThat(accumulator.getCount()).isEqualTo(3);
+        assertThat(accumulator.getMonthlyAverage()).isEqualByComparingTo(new BigDecimal("30.00"));
+    }
+
+    @Test
+    void toSummary_ShouldFlagDonorsBelowMinimum() {
+        DonorAccumulator accumulator = new DonorAccumulator("Low Donor");
+        accumulator.add(donation(LocalDate.of(2023, 12, 1), "20.00"));
+        accumulator.add(donation(LocalDate.of(2024, 1, 1), "20.00"));
+
+        DonorSummary summary = accumulator.toSummary(new BigDecimal("30.00"));
+
+        assertThat(summary.getName()).isEqualTo("Low Donor");
+        assertThat(summary.getMonthlyAverage()).isEqualByComparingTo(new BigDecimal("20.00"));
+        assertThat(summary.isBelowMinimum()).isTrue();
+        assertThat(summary.getDonations()).hasSize(2);
+    }
+
+    @Test
+    void toSummary_WithoutRetainedDonations_ShouldLeaveDonationsNull() {
+        DonorAccumulator accumulator = new DonorAccumulator("John Doe", false);
+        accumulator.add(donation(LocalDate.of(2024, 1, 1), "20.00"));
+        accumulator.merge(new DonorAccumulator("John Doe", false));
+
+        DonorSummary summary = accumulator.toSummary(new BigDecimal("10.00"));
+
+        assertThat(summary.getDonationCount()).isEqualTo(1);
+        assertThat(summary.getDonations()).isNull();
+    }
+
+    private Transaction donation(LocalDate date, String amount) {
+        return new Transaction("John Doe", date, new BigDecimal(amount), "REF", TransactionType.CREDIT);
+    }
+}
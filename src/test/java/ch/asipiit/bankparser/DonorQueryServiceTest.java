@@ -0,0 +1,101 @@
+package ch.asipiit.bankparser;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DonorQueryServiceTest {
+
+    private DonorQueryService service;
+    private List<DonorSummary> donors;
+
+    @BeforeEach
+    void setUp() {
+        service = new DonorQueryService();
+        donors = new ArrayList<>();
+        donors.add(donor("Aisha", "120.00", "40.00", false));
+        donors.add(donor("Bilal", "20.00", "20.00", true));
+        donors.add(donor("Amir", "300.00", "100.00", false));
+        donors.add(donor("Fatima", "50.00", "25.00", true));
+        donors.add(donor("Yusuf", "90.00", "30.00", false));
+    }
+
+    @Test
+    void query_ShouldSortByTotalDescendingAndPage() {
+        DonorQuery query = new DonorQuery();
+        query.setSize(2);
+
+        DonorPage first = service.query(donors, query);
+        query.setPage(2);
+        DonorPage last = service.query(donors, query);
+
+        assertThat(first.getDonors()).extracting(DonorSummary::getName).containsExactly("Amir", "Aisha");
+        assertThat(first.getTotalDonors()).isEqualTo(5);
+        assertThat(first.getTotalPages()).isEqualTo(3);
+        assertThat(last.getDonors()).extracting(DonorSummary::getName).containsExactly("Bilal");
+    }
+
+    @Test
+    void query_WithFilters_ShouldOnlyReturnMatchingDonors() {
+        DonorQuery query = new DonorQuery();
+        query.setBelowMinimum(false);
+        query.setNamePrefix("a");
+        query.setMaxAmount(new BigDecimal("200"));
+        query.setSort("name");
+        query.setDirection("asc");
+
+        DonorPage page = service.query(donors, query);
+
+        assertThat(page.getDonors()).extracting(DonorSummary::getName).containsExactly("Aisha");
+        assertThat(page.getTotalDonors()).isEqualTo(1);
+    }
+
+    @Test
+    void query_ShouldLeaveOutTransactionsUnlessRequested() {
+        DonorQuery query = new DonorQuery();
+
+        assertThat(service.query(donors, query).getDonors())
+                .allSatisfy(donor -> {
+                    assertThat(donor.getDonations()).isNull();
+                    assertThat(donor.getDonationCount()).isEqualTo(1);
+                });
+
+        query.setIncludeDonations(true);
+        assertThat(service.query(donors, query).getDonors())
+                .allSatisfy(donor -> assertThat(donor.getDonations()).hasSize(1));
+    }
+
+    @Test
+    void query_WithUnknownSortOrOversizedPage_ShouldThrow() {
+        DonorQuery unknownSort = new DonorQuery();
+        unknownSort.setSort("age");
+        DonorQuery oversized = new DonorQuery();
+        oversized.setSize(DonorQueryService.MAX_PAGE_SIZE + 1);
+
+        assertThatThrownBy(() -> service.query(donors, unknownSort)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.query(donors, oversized)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void findDonor_ShouldMatchExactName() {
+        assertThat(service.findDonor(donors, "Yusuf")).isNotNull();
+        assertThat(service.findDonor(donors, "yusuf")).isNull();
+    }
+
+    private DonorSummary donor(String name, String total, String monthlyAverage, boolean belowMinimum) {
+        return new DonorSummary(
+                name,
+                new BigDecimal(total),
+                new BigDecimal(monthlyAverage),
+                belowMinimum,
+                List.of(new Transaction(name, LocalDate.of(2024, 1, 1), new BigDecimal(total), "REF", TransactionType.CREDIT))
+        );
+    }
+}
@@ -0,0 +1,66 @@
+package ch.asipiit.bankparser;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DuplicateFilterTest {
+
+    private final DuplicateFilter filter = new DuplicateFilter();
+
+    @Test
+    void filter_ShouldDropEntriesSeenInAnEarlierStatement() {
+        Transaction january = transaction("John Doe", "2024-01-05", "50.00", "REF1", null);
+        Transaction february = transaction("John Doe", "2024-02-05", "50.00", "REF2", null);
+
+        DuplicateFilter.Result first = filter.filter(List.of(january));
+        DuplicateFilter.Result second = filter.filter(List.of(january, february));
+
+        assertThat(first.getTransactions()).containsExactly(january);
+        assertThat(first.getDuplicateCount()).isZero();
+        assertThat(second.getTransactions()).containsExactly(february);
+        assertThat(second.getDuplicateCount()).isEqualTo(1);
+    }
+
+    @Test
+    void filter_ShouldKeepIdenticalEntriesWithinOneStatement() {
+        Transaction fee = transaction("Unknown", "2024-01-31", "-2.00", "", null);
+
+        DuplicateFilter.Result first = filter.filter(List.of(fee, fee));
+        DuplicateFilter.Result second = filter.filter(List.of(fee, fee, fee));
+
+        assertThat(first.getTransactions()).hasSize(2);
+        assertThat(second.getTransactions()).hasSize(1);
+        assertThat(second.getDuplicateCount()).isEqualTo(2);
+    }
+
+    @Test
+    void filter_ShouldMatchEntriesWithTheSameBankReference() {
+        // a statement and a notification describing the same booking with different party details
+        Transaction booked = transaction("John Doe", "2024-03-01", "100.00", "REF1", "ACCT-7");
+        Transaction notified = transaction("JOHN DOE, ZURICH", "2024-03-01", "100.00", "", "ACCT-7");
+        Transaction other = transaction("John Doe", "2024-03-01", "100.00", "REF1", "ACCT-8");
+
+        filter.filter(List.of(booked));
+        DuplicateFilter.Result result = filter.filter(List.of(notified, other));
+
+        assertThat(result.getTransactions()).containsExactly(other);
+        assertThat(result.getDuplicateCount()).isEqualTo(1);
+    }
+
+    @Test
+    void entryReference_ShouldPreferAccountServicerReference() {
+        assertThat(EntryKeys.entryReference(" ACCT-1 ", "TX-1", "E2E-1")).isEqualTo("ACCT-1");
+        assertThat(EntryKeys.entryReference(null, " ", "E2E-1")).isEqualTo("E2E-1");
+        assertThat(EntryKeys.entryReference(null, null, "NOTPROVIDED")).isNull();
+    }
+
+    private Transaction transaction(String name, String date, String amount, String reference, String entryReference) {
+        return new Transaction(name, LocalDate.parse(date), new BigDecimal(amount), reference,
+                TransactionType.CREDIT, entryReference);
+    }
+}
@@ -0,0 +1,37 @@
+package ch.asipiit.bankparser;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongHashSetTest {
+
+    @Test
+    void add_ShouldGrowAndKeepAllValues() {
+        LongHashSet set = new LongHashSet(4);
+
+        for (long value = -500; value < 500; value++) {
+            assertThat(set.add(value * 0x9E3779B97F4A7C15L)).isTrue();
+        }
+
+        assertThat(set.size()).isEqualTo(1000);
+        assertThat(set.contains(0L)).isTrue();
+        assertThat(set.contains(499 * 0x9E3779B97F4A7C15L)).isTrue();
+        assertThat(set.contains(500 * 0x9E3779B97F4A7C15L)).isFalse();
+        assertThat(set.add(0L)).isFalse();
+        assertThat(set.add(-500 * 0x9E3779B97F4A7C15L)).isFalse();
+    }
+
+    @Test
+    void clear_ShouldRemoveAllValues() {
+        LongHashSet set = new LongHashSet();
+        set.add(0L);
+        set.add(42L);
+
+        set.clear();
+
+        assertThat(set.size()).isZero();
+        assertThat(set.contains(0L)).isFalse();
+        assertThat(set.add(42L)).isTrue();
+    }
+}
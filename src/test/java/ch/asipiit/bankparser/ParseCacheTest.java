@@ -0,0 +1,146 @@
+package ch.asipiit.bankparser;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParseCacheTest {
+
+    @Test
+    void get_AfterPut_ShouldReturnEqualTransactions() {
+        ParseCache cache = new ParseCache(true, DataSize.ofMegabytes(1));
+        List<Transaction> transactions = Arrays.asList(
+                new Transaction("John Doe", LocalDate.of(2024, 3, 1), new BigDecimal("100.00"), "REF1", TransactionType.CREDIT),
+                new Transaction("Jöhn Müller", LocalDate.of(2024, 3, 2), new BigDecimal("-15.5"), "", TransactionType.DEBIT)
+        );
+
+        cache.put("abc", new ParsedStatement("CAMT.053", transactions, false));
+        ParsedStatement cached = cache.get("abc");
+
+        assertThat(cached.isFromCache()).isTrue();
+        assertThat(cached.getFileType()).isEqualTo("CAMT.053");
+        assertThat(cached.getTransactions())
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(transactions);
+        assertThat(cache.get("missing")).isNull();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void put_OverMemoryBound_ShouldEvictLeastRecentlyUsed() {
+        ParseCache cache = new ParseCache(true, DataSize.ofBytes(400));
+        cache.put("a", statement("A"));
+        cache.put("b", statement("B"));
+        cache.get("a");
+        cache.put("c", statement("C"));
+
+        assertThat(cache.getEvictions()).isEqualTo(1);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("c")).isNotNull();
+        assertThat(cache.getMemoryBytes()).isLessThanOrEqualTo(400);
+    }
+
+    @Test
+    void getBatch_ShouldReturnCachedBatchAlongsideStatement() {
+        ParseCache cache = new ParseCache(true, DataSize.ofMegabytes(1));
+        TransactionBatch batch = TransactionBatch.from(statement("A").getTransactions());
+
+        cache.putBatch("a", new ParsedBatch("CAMT.054", batch));
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.getBatch("a").getBatch()).isSameAs(batch);
+
+        cache.put("a", statement("A"));
+
+        assertThat(cache.get("a").getTransactions()).extracting(Transaction::getDebtorName).containsExactly("A");
+        assertThat(cache.getBatch("a").getBatch()).isSameAs(batch);
+        assertThat(cache.getEntryCount()).isEqualTo(1);
+    }
+
+    @Test
+    void processStatement_WithOtherContent_ShouldParseBoth() throws Exception {
+        ParseCache cache = new ParseCache(true, DataSize.ofMegabytes(1));
+        CamtProcessingService service = new CamtProcessingService(
+                CamtProcessors.all(ParserMode.STREAMING), cache, new SimpleMeterRegistry());
+        String first = getCamt053Xml();
+        String second = first.replace("100.00", "200.00");
+
+        ParsedStatement parsedFirst = service.processStatement(source(first, new AtomicInteger()));
+        ParsedStatement parsedSecond = service.processStatement(source(second, new AtomicInteger()));
+        ParsedStatement repeated = service.processStatement(source(second, new AtomicInteger()));
+
+        assertThat(parsedFirst.getTransactions().get(0).getAmount()).isEqualByComparingTo("100.00");
+        assertThat(parsedSecond.isFromCache()).isFalse();
+        assertThat(parsedSecond.getTransactions().get(0).getAmount()).isEqualByComparingTo("200.00");
+        assertThat(repeated.isFromCache()).isTrue();
+        assertThat(repeated.getTransactions().get(0).getAmount()).isEqualByComparingTo("200.00");
+    }
+
+    @Test
+    void processStatement_WithRepeatedUpload_ShouldParseOnlyOnce() throws Exception {
+        ParseCache cache = new ParseCache(true, DataSize.ofMegabytes(1));
+        CamtProcessingService service = new CamtProcessingService(
+                CamtProcessors.all(ParserMode.STREAMING), cache, new SimpleMeterRegistry());
+        AtomicInteger opened = new AtomicInteger();
+        StatementSource source = source(getCamt053Xml(), opened);
+
+        ParsedStatement first = service.processStatement(source);
+        ParsedStatement second = service.processStatement(source);
+
+        assertThat(first.isFromCache()).isFalse();
+        assertThat(second.isFromCache()).isTrue();
+        assertThat(second.getFileType()).isEqualTo("CAMT.053");
+        assertThat(second.getTransactions()).hasSize(1);
+        // the first upload is hashed and then parsed, the second is only hashed
+        assertThat(opened).hasValue(3);
+    }
+
+    private StatementSource source(String xml, AtomicInteger opened) {
+        return new StatementSource() {
+            private final byte[] content = xml.getBytes(StandardCharsets.UTF_8);
+
+            @Override
+            public String getName() {
+                return "statement.xml";
+            }
+
+            @Override
+            public long getSize() {
+                return content.length;
+            }
+
+            @Override
+            public InputStream openStream() {
+                opened.incrementAndGet();
+                return new ByteArrayInputStream(content);
+            }
+        };
+    }
+
+    private ParsedStatement statement(String debtorName) {
+        return new ParsedStatement("CAMT.054", List.of(
+                new Transaction(debtorName, LocalDate.of(2024, 1, 1), new BigDecimal("10.00"), "REF", TransactionType.CREDIT)
+        ), false);
+    }
+
+    private String getCamt053Xml() {
+        return "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.053.001.08\">" +
+                "<BkToCstmrStmt><Stmt><Ntry>" +
+                "<Amt Ccy=\"CHF\">100.00</Amt><CdtDbtInd>CRDT</CdtDbtInd>" +
+                "<BookgDt><Dt>2024-03-01</Dt></BookgDt>" +
+                "</Ntry></Stmt></BkToCstmrStmt></Document>";
+    }
+}
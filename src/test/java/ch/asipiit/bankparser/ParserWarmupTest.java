@@ -0,0 +1,93 @@
+package ch.asipiit.bankparser;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ParserWarmupTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void run_ShouldParseSampleWithEveryProcessorAndRecordDuration() {
+        List<MeterRegistry> scratchRegistries = new ArrayList<>();
+        ParserWarmup warmup = new ParserWarmup(scratch -> {
+            scratchRegistries.add(scratch);
+            return List.of(
+                    CamtProcessors.create("053.001.08", ParserMode.PROWIDE, scratch),
+                    CamtProcessors.create("054.001.08", ParserMode.STREAMING, scratch));
+        }, meterRegistry, true, 3, 5);
+
+        warmup.run(null);
+
+        assertThat(warmup.getDurationNanos()).isPositive();
+        assertThat(meterRegistry.get("bankparser.warmup.duration").timeGauge().value(TimeUnit.NANOSECONDS)).isPositive();
+        assertThat(scratchRegistries).singleElement().satisfies(scratch -> {
+            assertThat(scratch.get("bankparser.processor.parse").tag("format", "053.001.08").timer().count())
+                    .isEqualTo(6);
+            assertThat(scratch.get("bankparser.processor.parse").tag("format", "054.001.08").timer().count())
+                    .isEqualTo(6);
+        });
+    }
+
+    @Test
+    void run_ShouldKeepWarmupParsesOutOfApplicationMetrics() {
+        new ParserWarmup(ParserMode.STREAMING, meterRegistry, true, 2, 5).run(null);
+
+        assertThat(meterRegistry.find("bankparser.processor.parse").meters()).isEmpty();
+        assertThat(meterRegistry.find("bankparser.detect").meters()).isEmpty();
+        assertThat(meterRegistry.find("bankparser.analysis").meters()).isEmpty();
+        assertThat(meterRegistry.find("bankparser.warmup.duration").timeGauge()).isNotNull();
+    }
+
+    @Test
+    void run_WithFailingProcessor_ShouldNotFailStartup() {
+        CamtProcessor<?> failing = mock(CamtProcessor.class);
+        when(failing.getNamespace()).thenReturn("urn:iso:std:iso:20022:tech:xsd:camt.053.001.08");
+        when(failing.getFormatVersion()).thenReturn("053.001.08");
+        when(failing.processTransactions(any(InputStream.class))).thenThrow(new RuntimeException("broken"));
+
+        createWarmup(List.of(failing), true).run(null);
+
+        verify(failing).processTransactions(any(InputStream.class));
+    }
+
+    @Test
+    void run_WhenDisabled_ShouldSkipWarmup() {
+        CamtProcessor<?> processor = mock(CamtProcessor.class);
+
+        ParserWarmup warmup = createWarmup(List.of(processor), false);
+        warmup.run(null);
+
+        assertThat(warmup.getDurationNanos()).isZero();
+        verify(processor, never()).processTransactions(any(InputStream.class));
+    }
+
+    @Test
+    void sampleDocument_ShouldBeParsedIntoRequestedEntries() {
+        String document = ParserWarmup.sampleDocument("urn:iso:std:iso:20022:tech:xsd:camt.054.001.08", 12);
+
+        List<Transaction> transactions = CamtProcessors.create("054.001.08", ParserMode.STREAMING)
+                .processTransactions(document);
+
+        assertThat(transactions).hasSize(12);
+        assertThat(transactions).extracting(Transaction::getDebtorName).allMatch(name -> name.startsWith("Warm-up Donor"));
+        assertThat(ParserWarmup.sampleDocument("urn:example:unknown", 1)).isNull();
+    }
+
+    private ParserWarmup createWarmup(List<CamtProcessor<?>> processors, boolean enabled) {
+        return new ParserWarmup(scratch -> processors, meterRegistry, enabled, 3, 5);
+    }
+}
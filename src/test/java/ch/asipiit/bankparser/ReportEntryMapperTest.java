@@ -0,0 +1,51 @@
+package ch.asipiit.bankparser;
+
+import com.prowidesoftware.swift.model.mx.MxCamt05300108;
+import com.prowidesoftware.swift.model.mx.dic.ReportEntry10;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportEntryMapperTest {
+
+    @Test
+    void toTransaction_WithCompleteEntry_ShouldMapAllFields() {
+        ReportEntry10 entry = parseEntry(
+                "<Amt Ccy=\"CHF\">75.25</Amt><CdtDbtInd>CRDT</CdtDbtInd>" +
+                "<BookgDt><Dt>2024-05-31</Dt></BookgDt>" +
+                "<NtryDtls><TxDtls>" +
+                "<RltdPties><Dbtr><Pty><Nm>Jane Doe</Nm></Pty></Dbtr></RltdPties>" +
+                "<RmtInf><Strd><CdtrRefInf><Ref>RF18</Ref></CdtrRefInf></Strd></RmtInf>" +
+                "</TxDtls></NtryDtls>");
+
+        Transaction transaction = ReportEntryMapper.toTransaction(entry);
+
+        assertThat(transaction.getDebtorName()).isEqualTo("Jane Doe");
+        assertThat(transaction.getDate()).isEqualTo(LocalDate.of(2024, 5, 31));
+        assertThat(transaction.getAmount()).isEqualByComparingTo(new BigDecimal("75.25"));
+        assertThat(transaction.getReference()).isEqualTo("RF18");
+        assertThat(transaction.getType()).isEqualTo(TransactionType.CREDIT);
+    }
+
+    @Test
+    void toTransaction_WithMissingPaths_ShouldUseDefaults() {
+        ReportEntry10 entry = parseEntry("<CdtDbtInd>DBIT</CdtDbtInd><NtryDtls><TxDtls><RltdPties/></TxDtls></NtryDtls>");
+
+        Transaction transaction = ReportEntryMapper.toTransaction(entry);
+
+        assertThat(transaction.getDebtorName()).isEqualTo("Unknown");
+        assertThat(transaction.getDate()).isEqualTo(LocalDate.now());
+        assertThat(transaction.getAmount()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(transaction.getReference()).isEmpty();
+        assertThat(transaction.getType()).isEqualTo(TransactionType.DEBIT);
+    }
+
+    private ReportEntry10 parseEntry(String entryXml) {
+        String xml = "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.053.001.08\">" +
+                "<BkToCstmrStmt><Stmt><Ntry>" + entryXml + "</Ntry></Stmt></BkToCstmrStmt></Document>";
+        return MxCamt05300108.parse(xml).getBkToCstmrStmt().getStmt().get(0).getNtry().get(0);
+    }
+}
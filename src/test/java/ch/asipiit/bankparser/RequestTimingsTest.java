@@ -0,0 +1,51 @@
+package ch.asipiit.bankparser;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestTimingsTest {
+
+    @Test
+    void record_ShouldSumStagesOfTheBoundInstanceOnly() {
+        RequestTimings timings = new RequestTimings();
+
+        RequestTimings.record("parse", 1_000_000);
+        try (RequestTimings.Scope scope = RequestTimings.bind(timings)) {
+            RequestTimings.record("parse", 2_000_000);
+            RequestTimings.record("parse", 500_000);
+            RequestTimings.count("entries", 12);
+        }
+        RequestTimings.record("parse", 1_000_000);
+
+        assertThat(timings.getStageNanos("parse")).isEqualTo(2_500_000);
+        assertThat(timings.getCount("entries")).isEqualTo(12);
+        assertThat(RequestTimings.current()).isNull();
+    }
+
+    @Test
+    void bind_ShouldRestorePreviousInstance() {
+        RequestTimings outer = new RequestTimings();
+
+        try (RequestTimings.Scope outerScope = RequestTimings.bind(outer)) {
+            try (RequestTimings.Scope innerScope = RequestTimings.bind(null)) {
+                assertThat(RequestTimings.current()).isNull();
+            }
+            assertThat(RequestTimings.current()).isSameAs(outer);
+        }
+    }
+
+    @Test
+    void toServerTiming_ShouldListStagesCountsAndTotal() {
+        RequestTimings timings = new RequestTimings();
+        timings.add("detect", 400_000);
+        timings.add("parse", 81_250_000);
+        timings.addCount("entries", 1200);
+
+        assertThat(timings.toServerTiming())
+                .startsWith("detect;dur=0.4, parse;dur=81.3, entries;desc=1200, total;dur=");
+        assertThat(timings.toLogFields())
+                .startsWith("total_ms=")
+                .endsWith(" detect_ms=0.4 parse_ms=81.3 entries=1200");
+    }
+}
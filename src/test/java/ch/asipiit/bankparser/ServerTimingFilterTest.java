@@ -0,0 +1,54 @@
+package ch.asipiit.bankparser;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServerTimingFilterTest {
+
+    private final ServerTimingFilter filter = new ServerTimingFilter();
+    private final ServerTimingAdvice advice = new ServerTimingAdvice();
+
+    @Test
+    void doFilter_ShouldExposeStagesRecordedByTheHandler() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/formats");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                RequestTimings.record("detect", 2_000_000);
+                ServletServerHttpResponse serverResponse = new ServletServerHttpResponse(resp);
+                advice.beforeBodyWrite("body", (MethodParameter) null, MediaType.APPLICATION_JSON, null,
+                        new ServletServerHttpRequest(req), serverResponse);
+                serverResponse.flush();
+            }
+        }));
+
+        assertThat(response.getHeader(ServerTimingAdvice.SERVER_TIMING_HEADER)).startsWith("detect;dur=2.0, total;dur=");
+        RequestTimings timings = (RequestTimings) request.getAttribute(ServerTimingFilter.TIMINGS_ATTRIBUTE);
+        assertThat(timings.toLogFields()).contains(" detect_ms=2.0", " serialize_ms=");
+        assertThat(RequestTimings.current()).isNull();
+    }
+
+    @Test
+    void doFilter_OutsideApi_ShouldNotCollectTimings() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/health");
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(request.getAttribute(ServerTimingFilter.TIMINGS_ATTRIBUTE)).isNull();
+    }
+}
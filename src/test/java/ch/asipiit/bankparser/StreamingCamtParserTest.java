@@ -0,0 +1,179 @@
+package ch.asipiit.bankparser;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingCamtParserTest {
+
+    private StreamingCamtParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new StreamingCamtParser();
+    }
+
+    @Test
+    void parse_WithCompleteEntries_ShouldMapAllFields() throws Exception {
+        List<Transaction> transactions = parser.parse(new StringReader(getCamt053Xml()));
+
+        assertThat(transactions).hasSize(2);
+
+        Transaction credit = transactions.get(0);
+        assertThat(credit.getDebtorName()).isEqualTo("John Doe");
+        assertThat(credit.getDate()).isEqualTo(LocalDate.of(2024, 3, 1));
+        assertThat(credit.getAmount()).isEqualByComparingTo(new BigDecimal("100.00"));
+        assertThat(credit.getReference()).isEqualTo("REF1");
+        assertThat(credit.getType()).isEqualTo(TransactionType.CREDIT);
+
+        Transaction debit = transactions.get(1);
+        assertThat(debit.getDebtorName()).isEqualTo("Unknown");
+        assertThat(debit.getAmount()).isEqualByComparingTo(new BigDecimal("15.50"));
+        assertThat(debit.getReference()).isEmpty();
+        assertThat(debit.getType()).isEqualTo(TransactionType.DEBIT);
+    }
+
+    @Test
+    void parse_WithSeveralTransactionDetails_ShouldUseFirstOnly() throws Exception {
+        String xml = "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.054.001.08\">" +
+                "<BkToCstmrDbtCdtNtfctn><Ntfctn><Ntry>" +
+                "<Amt Ccy=\"CHF\">50.00</Amt><CdtDbtInd>CRDT</CdtDbtInd>" +
+                "<BookgDt><Dt>2024-04-02</Dt></BookgDt>" +
+                "<NtryDtls>" +
+                "<TxDtls><RltdPties><Dbtr><Pty><Nm>First</Nm></Pty></Dbtr></RltdPties></TxDtls>" +
+                "<TxDtls><RltdPties><Dbtr><Pty><Nm>Second</Nm></Pty></Dbtr></RltdPties></TxDtls>" +
+                "</NtryDtls>" +
+                "</Ntry></Ntfctn></BkToCstmrDbtCdtNtfctn></Document>";
+
+        List<Transaction> transactions = parser.parse(new StringReader(xml));
+
+        assertThat(transactions)
+                .singleElement()
+                .satisfies(transaction -> assertThat(transaction.getDebtorName()).isEqualTo("First"));
+    }
+
+    @Test
+    void parse_WithConsumer_ShouldEmitEntriesInDocumentOrder() throws Exception {
+        List<String> references = new ArrayList<>();
+
+        parser.parse(new StringReader(getCamt053Xml()), transaction -> references.add(transaction.getReference()));
+
+        assertThat(references).containsExactly("REF1", "");
+    }
+
+    @Test
+    void parse_ShouldMatchProwideMapping() {
+        List<Transaction> streaming = CamtProcessors.create("053.001.08", ParserMode.STREAMING).processTransactions(getCamt053Xml());
+        List<Transaction> prowide = CamtProcessors.create("053.001.08", ParserMode.PROWIDE).processTransactions(getCamt053Xml());
+
+        assertThat(streaming)
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(prowide);
+    }
+
+    @Test
+    void parse_IntoBatch_ShouldMatchTransactionMapping() throws Exception {
+        TransactionBatch batch = new TransactionBatch();
+
+        parser.parse(new ByteArrayInputStream(getCamt053Xml().getBytes(StandardCharsets.UTF_8)), batch);
+
+        assertThat(batch.size()).isEqualTo(2);
+        assertThat(batch.getDonorName(batch.getDonorId(0))).isEqualTo("John Doe");
+        assertThat(batch.getAmountMinor(0)).isEqualTo(10000);
+        assertThat(batch.getEpochDay(0)).isEqualTo((int) LocalDate.of(2024, 3, 1).toEpochDay());
+        assertThat(batch.isCredit(0)).isTrue();
+        assertThat(batch.getDonorName(batch.getDonorId(1))).isEqualTo("Unknown");
+        assertThat(batch.getAmountMinor(1)).isEqualTo(1550);
+        assertThat(batch.getType(1)).isEqualTo(TransactionType.DEBIT);
+    }
+
+    @Test
+    void parse_IntoBatch_ShouldReadAmountsLikeBigDecimal() throws Exception {
+        String[] amounts = {"7", "7.5", "0.05", "-12.34", "1e2", "3.14159", "abc", ".5"};
+        for (String amount : amounts) {
+            String xml = "<Document><Ntry><Amt>" + amount + "</Amt></Ntry></Document>";
+            TransactionBatch batch = new TransactionBatch();
+            parser.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), batch);
+
+            Transaction transaction = parser.parse(new StringReader(xml)).get(0);
+            assertThat(batch.getAmountMinor(0))
+                    .as(amount)
+                    .isEqualTo(TransactionBatch.toMinorUnits(transaction.getAmount()));
+        }
+    }
+
+    @Test
+    void parse_ShouldReadBookingDateFromItsComponents() throws Exception {
+        assertThat(bookingDate(" 2024-02-29 ")).isEqualTo(LocalDate.of(2024, 2, 29));
+        assertThat(bookingDate("2024-03-01T10:15:00+01:00")).isEqualTo(LocalDate.of(2024, 3, 1));
+        assertThat(bookingDate("2023-02-29")).isEqualTo(LocalDate.now());
+        assertThat(bookingDate("2024-13-01")).isEqualTo(LocalDate.now());
+        assertThat(bookingDate("01.03.2024")).isEqualTo(LocalDate.now());
+        assertThat(bookingDate("2024-3-1")).isEqualTo(LocalDate.now());
+    }
+
+    @Test
+    void parse_ShouldPreferAccountServicerReferenceAsEntryReference() throws Exception {
+        String xml = "<Document><Ntry><AcctSvcrRef> ACCT-1 </AcctSvcrRef><NtryDtls><TxDtls>" +
+                "<Refs><AcctSvcrRef>TX-1</AcctSvcrRef><EndToEndId>E2E-1</EndToEndId></Refs>" +
+                "</TxDtls></NtryDtls></Ntry>" +
+                "<Ntry><NtryDtls><TxDtls><Refs><EndToEndId>E2E-2</EndToEndId></Refs></TxDtls></NtryDtls></Ntry>" +
+                "<Ntry><NtryDtls><TxDtls><Refs><EndToEndId>NOTPROVIDED</EndToEndId></Refs></TxDtls></NtryDtls></Ntry>" +
+                "</Document>";
+
+        List<Transaction> transactions = parser.parse(new StringReader(xml));
+
+        assertThat(transactions)
+                .extracting(Transaction::getEntryReference)
+                .containsExactly("ACCT-1", "E2E-2", null);
+    }
+
+    @Test
+    void parse_IntoBatch_ShouldKeyEntriesLikeTransactions() throws Exception {
+        TransactionBatch batch = new TransactionBatch();
+
+        parser.parse(new ByteArrayInputStream(getCamt053Xml().getBytes(StandardCharsets.UTF_8)), batch);
+
+        assertThat(EntryKeys.keys(batch)).containsExactly(EntryKeys.keys(parser.parse(new StringReader(getCamt053Xml()))));
+    }
+
+    private LocalDate bookingDate(String date) throws Exception {
+        String xml = "<Document><Ntry><BookgDt><Dt>" + date + "</Dt></BookgDt></Ntry></Document>";
+        return parser.parse(new StringReader(xml)).get(0).getDate();
+    }
+
+    private String getCamt053Xml() {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.053.001.08\">" +
+                "  <BkToCstmrStmt>" +
+                "    <Stmt>" +
+                "      <Ntry>" +
+                "        <Amt Ccy=\"CHF\">100.00</Amt>" +
+                "        <CdtDbtInd>CRDT</CdtDbtInd>" +
+                "        <BookgDt><Dt>2024-03-01</Dt></BookgDt>" +
+                "        <NtryDtls>" +
+                "          <TxDtls>" +
+                "            <RltdPties><Dbtr><Pty><Nm>John Doe</Nm></Pty></Dbtr></RltdPties>" +
+                "            <RmtInf><Strd><CdtrRefInf><Ref>REF1</Ref></CdtrRefInf></Strd></RmtInf>" +
+                "          </TxDtls>" +
+                "        </NtryDtls>" +
+                "      </Ntry>" +
+                "      <Ntry>" +
+                "        <Amt Ccy=\"CHF\">15.50</Amt>" +
+                "        <CdtDbtInd>DBIT</CdtDbtInd>" +
+                "        <BookgDt><Dt>2024-03-02</Dt></BookgDt>" +
+                "      </Ntry>" +
+                "    </Stmt>" +
+                "  </BkToCstmrStmt>" +
+                "</Document>";
+    }
+}
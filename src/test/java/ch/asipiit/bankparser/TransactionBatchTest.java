@@ -0,0 +1,67 @@
+package ch.asipiit.bankparser;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionBatchTest {
+
+    @Test
+    void from_ShouldEncodeColumnsAndDictionary() {
+        TransactionBatch batch = TransactionBatch.from(List.of(
+                new Transaction("John Doe", LocalDate.of(2024, 3, 1), new BigDecimal("100.5"), "REF1", TransactionType.CREDIT),
+                new Transaction("Jane Doe", LocalDate.of(2024, 3, 2), new BigDecimal("-20.00"), "REF2", TransactionType.DEBIT),
+                new Transaction("John Doe", LocalDate.of(2024, 4, 1), new BigDecimal("30.004"), "REF3", TransactionType.CREDIT)
+        ));
+
+        assertThat(batch.size()).isEqualTo(3);
+        assertThat(batch.getDonorCount()).isEqualTo(2);
+        assertThat(batch.getDonorId(0)).isEqualTo(batch.getDonorId(2));
+        assertThat(batch.getAmountMinor(0)).isEqualTo(10050);
+        assertThat(batch.getAmountMinor(1)).isEqualTo(-2000);
+        assertThat(batch.getAmountMinor(2)).isEqualTo(3000);
+        assertThat(batch.getEpochDay(1)).isEqualTo((int) LocalDate.of(2024, 3, 2).toEpochDay());
+        assertThat(batch.isCredit(0)).isTrue();
+        assertThat(batch.getType(1)).isEqualTo(TransactionType.DEBIT);
+
+        Transaction rebuilt = batch.toTransaction(0);
+        assertThat(rebuilt.getDebtorName()).isEqualTo("John Doe");
+        assertThat(rebuilt.getAmount()).isEqualByComparingTo("100.50");
+        assertThat(rebuilt.getReference()).isEmpty();
+    }
+
+    @Test
+    void add_BeyondInitialCapacity_ShouldGrow() {
+        TransactionBatch batch = new TransactionBatch(1);
+        for (int i = 0; i < 1000; i++) {
+            batch.add("Donor " + (i % 10), i, i, TransactionType.CREDIT, i);
+        }
+
+        assertThat(batch.size()).isEqualTo(1000);
+        assertThat(batch.getDonorCount()).isEqualTo(10);
+        assertThat(batch.getAmountMinor(999)).isEqualTo(999);
+    }
+
+    @Test
+    void addAll_ShouldRemapDonorIds() {
+        TransactionBatch first = new TransactionBatch();
+        first.add("John Doe", 1, 100, TransactionType.CREDIT, 1);
+        TransactionBatch second = new TransactionBatch();
+        second.add("Jane Doe", 2, 200, TransactionType.CREDIT, 2);
+        second.add("John Doe", 3, 300, TransactionType.CREDIT, 3);
+
+        first.addAll(second);
+
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < first.size(); i++) {
+            names.add(first.getDonorName(first.getDonorId(i)));
+        }
+        assertThat(names).containsExactly("John Doe", "Jane Doe", "John Doe");
+        assertThat(first.getDonorCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,208 @@
+package ch.asipiit.bankparser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void findByDateRange_ShouldReturnOnlyMatchingTransactionsInDateOrder() {
+        TransactionStore store = new TransactionStore(directory, true);
+        store.append(Arrays.asList(
+                transaction("John Doe", LocalDate.of(2024, 3, 1), "100.00", "REF1"),
+                transaction("Jane Doe", LocalDate.of(2024, 1, 15), "20.00", "REF2")
+        ));
+        store.append(Arrays.asList(
+                transaction("John Doe", LocalDate.of(2024, 2, 1), "50.00", "REF3"),
+                transaction("Jane Doe", LocalDate.of(2024, 5, 1), "25.00", "REF4")
+        ));
+
+        List<Transaction> result = store.findByDateRange(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 31));
+
+        assertThat(result)
+                .extracting(Transaction::getReference)
+                .containsExactly("REF3", "REF1");
+        assertThat(store.findByDateRange(null, null)).hasSize(4);
+    }
+
+    @Test
+    void findDonationRollup_WithPartialMonths_ShouldOnlyCountDaysInRange() {
+        TransactionStore store = new TransactionStore(directory, true);
+        store.append(Arrays.asList(
+                transaction("John Doe", LocalDate.of(2024, 3, 1), "100.00", "REF1"),
+                transaction("Jane Doe", LocalDate.of(2024, 1, 15), "20.00", "REF2")
+        ));
+        store.append(Arrays.asList(
+                transaction("John Doe", LocalDate.of(2024, 2, 1), "123456789012.5", "REF3"),
+                transaction("Jane Doe", LocalDate.of(2024, 3, 20), "30.00", "REF4")
+        ));
+
+        DonationRollup rollup = store.findDonationRollup(LocalDate.of(2024, 1, 20), LocalDate.of(2024, 3, 10));
+
+        assertThat(rollup.findDonors(null, null))
+                .singleElement()
+                .satisfies(donor -> {
+                    assertThat(donor.getName()).isEqualTo("John Doe");
+                    assertThat(donor.getTotal()).isEqualByComparingTo("123456789112.50");
+                    assertThat(donor.getCount()).isEqualTo(2);
+                });
+        assertThat(rollup.countTransactions(null, null)).isEqualTo(2);
+        assertThat(store.findDonationRollup(LocalDate.of(2024, 1, 16), LocalDate.of(2024, 1, 31))
+                .findDonors(null, null)).isEmpty();
+        assertThat(store.findDonationRollup(null, null).countTransactions(null, null)).isEqualTo(4);
+    }
+
+    @Test
+    void findByDonor_ShouldUseDonorIndexAcrossSegments() {
+        TransactionStore store = new TransactionStore(directory, true);
+        store.append(List.of(transaction("John Doe", LocalDate.of(2024, 1, 1), "10.00", "REF1")));
+        store.append(List.of(transaction("John Doe", LocalDate.of(2024, 2, 1), "12.50", "REF2")));
+        store.append(List.of(transaction("Jane Doe", LocalDate.of(2024, 2, 1), "30.00", "REF3")));
+
+        assertThat(store.findByDonor("John Doe"))
+                .extracting(Transaction::getAmount)
+                .containsExactly(new BigDecimal("10.00"), new BigDecimal("12.50"));
+        assertThat(store.findByDonor("Nobody")).isEmpty();
+    }
+
+    @Test
+    void append_ShouldSkipTransactionsAlreadyStored() {
+        TransactionStore store = new TransactionStore(directory, true);
+        List<Transaction> statement = List.of(transaction("John Doe", LocalDate.of(2024, 1, 1), "10.00", "REF1"));
+
+        assertThat(store.append(statement)).isEqualTo(1);
+        assertThat(store.append(statement)).isZero();
+        assertThat(store.getSegmentCount()).isEqualTo(1);
+    }
+
+    @Test
+    void reopen_ShouldLoadPersistedSegments() {
+        new TransactionStore(directory, true)
+                .append(List.of(transaction("Jane Doe", LocalDate.of(2024, 4, 2), "42.10", "REF9")));
+
+        TransactionStore reopened = new TransactionStore(directory, true);
+
+        assertThat(reopened.findByDateRange(LocalDate.of(2024, 4, 1), null))
+                .singleElement()
+                .satisfies(transaction -> {
+                    assertThat(transaction.getDebtorName()).isEqualTo("Jane Doe");
+                    assertThat(transaction.getAmount()).isEqualByComparingTo(new BigDecimal("42.10"));
+                    assertThat(transaction.getType()).isEqualTo(TransactionType.CREDIT);
+                });
+        assertThat(reopened.append(List.of(transaction("Jane Doe", LocalDate.of(2024, 4, 2), "42.10", "REF9")))).isZero();
+    }
+
+    @Test
+    void append_ShouldKeepIdenticalEntriesOfOneStatement() {
+        TransactionStore store = new TransactionStore(directory, true);
+        Transaction fee = transaction("John Doe", LocalDate.of(2024, 1, 1), "5.00", "");
+
+        assertThat(store.append(List.of(fee, fee))).isEqualTo(2);
+        assertThat(store.append(List.of(fee, fee, fee))).isEqualTo(1);
+    }
+
+    @Test
+    void reopen_ShouldMatchEntriesByTheirReference() {
+        Transaction booked = new Transaction("John Doe", LocalDate.of(2024, 4, 2), new BigDecimal("42.10"), "REF9",
+                TransactionType.CREDIT, "ACCT-1");
+        new TransactionStore(directory, true).append(List.of(booked));
+
+        TransactionStore reopened = new TransactionStore(directory, true);
+        Transaction notified = new Transaction("J. Doe", LocalDate.of(2024, 4, 2), new BigDecimal("42.10"), "",
+                TransactionType.CREDIT, "ACCT-1");
+
+        assertThat(reopened.findByDonor("John Doe"))
+                .singleElement()
+                .satisfies(transaction -> assertThat(transaction.getEntryReference()).isEqualTo("ACCT-1"));
+        assertThat(reopened.append(List.of(notified))).isZero();
+    }
+
+    @Test
+    void findMonthlyDonations_ShouldIncludeAppendedAndReloadedSegments() {
+        new TransactionStore(directory, true)
+                .append(List.of(transaction("Jane Doe", LocalDate.of(2024, 4, 2), "42.10", "REF1")));
+        TransactionStore reopened = new TransactionStore(directory, true);
+        reopened.append(List.of(transaction("Jane Doe", LocalDate.of(2024, 6, 30), "7.90", "REF2")));
+
+        assertThat(reopened.findMonthlyDonations(YearMonth.of(2024, 1), YearMonth.of(2024, 12)))
+                .singleElement()
+                .satisfies(donor -> {
+                    assertThat(donor.getTotal()).isEqualByComparingTo("50.00");
+                    assertThat(donor.getMonths()).hasSize(3);
+                });
+        assertThat(reopened.countTransactions(YearMonth.of(2024, 5), null)).isEqualTo(1);
+    }
+
+    @Test
+    void append_ShouldMergeSegmentsAndKeepTheirContents() throws IOException {
+        TransactionStore store = new TransactionStore(directory, true);
+        for (int day = 1; day <= 20; day++) {
+            store.append(List.of(transaction(day % 2 == 0 ? "John Doe" : "Jane Doe",
+                    LocalDate.of(2024, 1, 21 - day), "1.00", "REF" + day)));
+        }
+
+        assertThat(store.getSegmentCount()).isLessThanOrEqualTo(5);
+        assertThat(segmentFiles()).hasSize(store.getSegmentCount());
+        assertThat(store.findByDateRange(null, null))
+                .extracting(Transaction::getDate)
+                .isSorted()
+                .hasSize(20);
+        assertThat(store.findByDonor("John Doe")).hasSize(10);
+
+        TransactionStore reopened = new TransactionStore(directory, true);
+        assertThat(reopened.findMonthlyDonations(null, null))
+                .extracting(DonorMonths::getTotal)
+                .containsExactly(new BigDecimal("10.00"), new BigDecimal("10.00"));
+        assertThat(reopened.append(List.of(transaction("John Doe", LocalDate.of(2024, 1, 19), "1.00", "REF2")))).isZero();
+    }
+
+    @Test
+    void reopen_AfterInterruptedMerge_ShouldDropMergedSources() throws IOException {
+        TransactionStore store = new TransactionStore(directory, true);
+        store.append(List.of(transaction("John Doe", LocalDate.of(2024, 1, 1), "10.00", "REF1")));
+        Path source = directory.resolve("segment-00000001.seg");
+        Files.copy(source, directory.resolve("source.bak"));
+        store.append(List.of(transaction("John Doe", LocalDate.of(2024, 2, 1), "10.00", "REF2")));
+        // the merged segment exists, but deleting its sources did not finish
+        Files.move(directory.resolve("source.bak"), source);
+
+        TransactionStore reopened = new TransactionStore(directory, true);
+
+        assertThat(reopened.findByDonor("John Doe")).hasSize(2);
+        assertThat(Files.exists(source)).isFalse();
+    }
+
+    @Test
+    void constructor_WhenEnabledWithoutDirectory_ShouldFail() {
+        assertThatThrownBy(() -> new TransactionStore("", true))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("bankparser.store.directory");
+        assertThat(new TransactionStore("", false).isEnabled()).isFalse();
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".seg")).toList();
+        }
+    }
+
+    private Transaction transaction(String name, LocalDate date, String amount, String reference) {
+        return new Transaction(name, date, new BigDecimal(amount), reference, TransactionType.CREDIT);
+    }
+}
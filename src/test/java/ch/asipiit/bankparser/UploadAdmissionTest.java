@@ -0,0 +1,73 @@
+package ch.asipiit.bankparser;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UploadAdmissionTest {
+
+    @Test
+    void estimate_ShouldScaleWithParserModeAndCompression() {
+        UploadAdmission streaming = admission(true, 64, 4, ParserMode.STREAMING);
+        UploadAdmission prowide = admission(true, 64, 4, ParserMode.PROWIDE);
+
+        assertThat(streaming.estimate("statement.xml", 1000)).isEqualTo(3000);
+        assertThat(streaming.estimate("statement.XML.GZ", 1000)).isEqualTo(24000);
+        assertThat(prowide.estimate("statement.xml", 1000)).isEqualTo(12000);
+        assertThat(prowide.estimate(null, -1)).isZero();
+    }
+
+    @Test
+    void tryAcquire_OverMemoryBudget_ShouldRejectUntilReleased() throws Exception {
+        UploadAdmission admission = admission(true, 8, 4, ParserMode.STREAMING);
+
+        UploadAdmission.Ticket first = admission.tryAcquire(DataSize.ofMegabytes(5).toBytes());
+
+        assertThat(first).isNotNull();
+        assertThat(admission.tryAcquire(DataSize.ofMegabytes(5).toBytes())).isNull();
+        assertThat(admission.getRejected()).isEqualTo(1);
+        assertThat(admission.getActiveRequests()).isEqualTo(1);
+
+        first.close();
+        first.close();
+
+        assertThat(admission.getReservedBytes()).isZero();
+        assertThat(admission.tryAcquire(DataSize.ofMegabytes(5).toBytes())).isNotNull();
+    }
+
+    @Test
+    void tryAcquire_AboveWholeBudget_ShouldBeAdmittedAlone() throws Exception {
+        UploadAdmission admission = admission(true, 8, 4, ParserMode.STREAMING);
+
+        UploadAdmission.Ticket large = admission.tryAcquire(DataSize.ofGigabytes(1).toBytes());
+
+        assertThat(large).isNotNull();
+        assertThat(admission.getReservedBytes()).isEqualTo(DataSize.ofMegabytes(8).toBytes());
+        assertThat(admission.tryAcquire(0)).isNull();
+    }
+
+    @Test
+    void tryAcquire_OverConcurrencyLimit_ShouldReject() throws Exception {
+        UploadAdmission admission = admission(true, 64, 1, ParserMode.STREAMING);
+
+        assertThat(admission.tryAcquire(0)).isNotNull();
+        assertThat(admission.tryAcquire(0)).isNull();
+        assertThat(admission.getReservedBytes()).isEqualTo(UploadAdmission.REQUEST_OVERHEAD_BYTES);
+    }
+
+    @Test
+    void tryAcquire_WhenDisabled_ShouldAdmitEverything() throws Exception {
+        UploadAdmission admission = admission(false, 1, 1, ParserMode.STREAMING);
+
+        assertThat(admission.tryAcquire(DataSize.ofGigabytes(1).toBytes())).isNotNull();
+        assertThat(admission.tryAcquire(DataSize.ofGigabytes(1).toBytes())).isNotNull();
+    }
+
+    private UploadAdmission admission(boolean enabled, int budgetMegabytes, int maxConcurrent, ParserMode mode) {
+        return new UploadAdmission(enabled, DataSize.ofMegabytes(budgetMegabytes), maxConcurrent,
+                Duration.ofMillis(20), Duration.ofSeconds(5), mode);
+    }
+}
@@ -0,0 +1,149 @@
+package ch.asipiit.bankparser;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UploadExpanderTest {
+
+    private static final String XML = "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.054.001.08\"/>";
+
+    private final UploadExpander expander = new UploadExpander(DataSize.ofKilobytes(1), 2);
+
+    @Test
+    void expand_WithPlainXml_ShouldPassUploadThrough() throws Exception {
+        StatementSource upload = source("a.xml", XML.getBytes(StandardCharsets.UTF_8));
+
+        try (StatementBundle bundle = expander.expand(List.of(upload))) {
+            assertThat(bundle.getSources()).containsExactly(upload);
+        }
+    }
+
+    @Test
+    void expand_WithGzip_ShouldInflateWhenOpened() throws Exception {
+        StatementSource upload = source("a.xml.gz", gzip(XML));
+
+        try (StatementBundle bundle = expander.expand(List.of(upload))) {
+            assertThat(bundle.getSources()).singleElement().satisfies(source -> {
+                assertThat(source.getName()).isEqualTo("a.xml");
+                assertThat(read(source)).isEqualTo(XML);
+            });
+        }
+    }
+
+    @Test
+    void expand_WithZip_ShouldReturnEachXmlEntry() throws Exception {
+        byte[] archive = zip(
+                new String[]{"first.xml", XML},
+                new String[]{"nested/second.XML", XML},
+                new String[]{"readme.txt", "ignored"},
+                new String[]{"__MACOSX/._first.xml", "ignored"}
+        );
+
+        try (StatementBundle bundle = expander.expand(List.of(source("bundle.zip", archive)))) {
+            assertThat(bundle.getSources())
+                    .extracting(StatementSource::getName)
+                    .containsExactly("bundle.zip!/first.xml", "bundle.zip!/nested/second.XML");
+            assertThat(read(bundle.getSources().get(1))).isEqualTo(XML);
+        }
+    }
+
+    @Test
+    void expand_WithTooManyZipEntries_ShouldFail() throws Exception {
+        byte[] archive = zip(new String[]{"1.xml", XML}, new String[]{"2.xml", XML}, new String[]{"3.xml", XML});
+
+        assertThatThrownBy(() -> expander.expand(List.of(source("bundle.zip", archive))))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("more than 2 statements");
+    }
+
+    @Test
+    void openStream_BeyondUncompressedLimit_ShouldFail() throws Exception {
+        String large = "<Document>" + " ".repeat(4096) + "</Document>";
+
+        try (StatementBundle bundle = expander.expand(List.of(source("large.gz", gzip(large))))) {
+            assertThatThrownBy(() -> read(bundle.getSources().get(0)))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("exceeds 1024 bytes");
+        }
+    }
+
+    @Test
+    void expand_WithMultipartAtThreshold_ShouldMapSpooledCopy() throws Exception {
+        UploadExpander mapping = new UploadExpander(DataSize.ofKilobytes(1), 2, DataSize.ofBytes(XML.length()));
+        MultipartStatementSource large = new MultipartStatementSource(
+                new MockMultipartFile("file", "large.xml", "application/xml", XML.getBytes(StandardCharsets.UTF_8)));
+        MultipartStatementSource small = new MultipartStatementSource(
+                new MockMultipartFile("file", "small.xml", "application/xml", new byte[]{'<'}));
+
+        Path spooled;
+        try (StatementBundle bundle = mapping.expand(List.of(large, small))) {
+            assertThat(bundle.getSources().get(0)).isInstanceOf(MappedFileStatementSource.class);
+            assertThat(bundle.getSources().get(0).getName()).isEqualTo("large.xml");
+            assertThat(read(bundle.getSources().get(0))).isEqualTo(XML);
+            assertThat(bundle.getSources().get(1)).isSameAs(small);
+            spooled = ((MappedFileStatementSource) bundle.getSources().get(0)).getFile();
+        }
+        assertThat(Files.exists(spooled)).isFalse();
+    }
+
+    private static String read(StatementSource source) throws IOException {
+        try (InputStream in = source.openStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] zip(String[]... entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+            for (String[] entry : entries) {
+                out.putNextEntry(new ZipEntry(entry[0]));
+                out.write(entry[1].getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static StatementSource source(String name, byte[] content) {
+        return new StatementSource() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public long getSize() {
+                return content.length;
+            }
+
+            @Override
+            public InputStream openStream() {
+                return new ByteArrayInputStream(content);
+            }
+        };
+    }
+}